@@ -0,0 +1,78 @@
+package com.bootcamp.ntt.credit_service.benchmark;
+
+import com.bootcamp.ntt.credit_service.entity.Credit;
+import com.bootcamp.ntt.credit_service.entity.CreditStatus;
+import com.bootcamp.ntt.credit_service.entity.CreditType;
+import com.bootcamp.ntt.credit_service.entity.Money;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Properties;
+
+/**
+ * Datos representativos compartidos por los benchmarks
+ */
+final class BenchmarkData {
+
+  static final Money MONTHLY_PAYMENT = Money.ofMinor(1_250_00);
+
+  private BenchmarkData() {
+  }
+
+  /**
+   * Registra un tamaño fijo (bytes de un payload) junto a los resultados de JMH.
+   * No es una medición de tiempo, por eso va en un archivo aparte y no como contador de JMH.
+   */
+  static synchronized void reportPayloadSize(String name, long bytes) {
+    Path report = Path.of("target", "jmh-payload-sizes.properties");
+    Properties sizes = new Properties();
+    try {
+      if (Files.exists(report)) {
+        try (Reader reader = Files.newBufferedReader(report)) {
+          sizes.load(reader);
+        }
+      }
+      sizes.setProperty(name, Long.toString(bytes));
+      Files.createDirectories(report.getParent());
+      try (Writer writer = Files.newBufferedWriter(report)) {
+        sizes.store(writer, "Payload sizes in bytes");
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Crédito personal de 15000 con una cuota pagada y vencimiento próximo
+   */
+  static Credit credit() {
+    LocalDate today = LocalDate.now();
+    return Credit.builder()
+      .id("64f3cbb5f8a1e53d2f7c34e1")
+      .creditNumber("CR-00000000018")
+      .customerId("68a0cdde7d68c910da0bc239")
+      .type(CreditType.PERSONAL)
+      .originalAmount(Money.ofMinor(15_000_00))
+      .currentBalance(Money.ofMinor(13_750_00))
+      .monthlyPayment(MONTHLY_PAYMENT)
+      .totalInstallments(12)
+      .paidInstallments(1)
+      .remainingInstallments(11)
+      .nextPaymentDueDate(today.plusDays(10))
+      .finalDueDate(today.plusMonths(11))
+      .isOverdue(false)
+      .overdueDays(0)
+      .status(CreditStatus.ACTIVE)
+      .isActive(true)
+      .createdAt(Instant.parse("2025-08-18T10:15:30Z"))
+      .updatedAt(Instant.parse("2025-09-18T10:15:30Z"))
+      .version(1L)
+      .build();
+  }
+}
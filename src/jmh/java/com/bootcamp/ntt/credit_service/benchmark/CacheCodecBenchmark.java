@@ -0,0 +1,63 @@
+package com.bootcamp.ntt.credit_service.benchmark;
+
+import com.bootcamp.ntt.credit_service.config.RedisConfig;
+import com.bootcamp.ntt.credit_service.mapper.CreditMapper;
+import com.bootcamp.ntt.credit_service.model.CreditResponse;
+import com.bootcamp.ntt.credit_service.utils.CacheValueCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ida y vuelta de un CreditResponse por el serializador del cache:
+ * json = serializador anterior de RedisConfig (default typing), smile = CacheValueCodec.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Thread)
+public class CacheCodecBenchmark {
+
+  @Param({"json", "smile"})
+  private String codec;
+
+  private RedisSerializer<Object> serializer;
+  private CreditResponse value;
+  private byte[] encoded;
+
+  @Setup
+  public void setUp() {
+    serializer = "smile".equals(codec)
+      ? new CacheValueCodec(RedisConfig.legacyJsonSerializer(), true)
+      : RedisConfig.legacyJsonSerializer();
+    value = new CreditMapper().toResponse(BenchmarkData.credit());
+    encoded = serializer.serialize(value);
+    BenchmarkData.reportPayloadSize("cache." + codec + ".creditResponse", encoded.length);
+  }
+
+  @Benchmark
+  public byte[] serialize() {
+    return serializer.serialize(value);
+  }
+
+  @Benchmark
+  public Object deserialize() {
+    return serializer.deserialize(encoded);
+  }
+
+  @Benchmark
+  public Object roundTrip() {
+    return serializer.deserialize(serializer.serialize(value));
+  }
+}
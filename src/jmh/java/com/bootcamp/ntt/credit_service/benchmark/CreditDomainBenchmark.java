@@ -0,0 +1,66 @@
+package com.bootcamp.ntt.credit_service.benchmark;
+
+import com.bootcamp.ntt.credit_service.entity.Credit;
+import com.bootcamp.ntt.credit_service.mapper.CreditMapper;
+import com.bootcamp.ntt.credit_service.model.CreditResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Operaciones de dominio que corren en cada lectura o pago
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Thread)
+public class CreditDomainBenchmark {
+
+  private final CreditMapper creditMapper = new CreditMapper();
+  private Credit credit;
+
+  @Setup
+  public void setUp() {
+    credit = BenchmarkData.credit();
+  }
+
+  @Benchmark
+  public CreditResponse toResponse() {
+    return creditMapper.toResponse(credit);
+  }
+
+  @Benchmark
+  public Credit updateOverdueStatus() {
+    // idempotente: el estado no cambia entre invocaciones
+    credit.updateOverdueStatus();
+    return credit;
+  }
+
+  @Benchmark
+  public double getPaymentProgress() {
+    return credit.getPaymentProgress();
+  }
+
+  /**
+   * processPayment modifica el crédito, así que cada invocación paga sobre uno nuevo.
+   * newCredit mide solo la construcción, para descontarla.
+   */
+  @Benchmark
+  public boolean processPayment() {
+    return BenchmarkData.credit().processPayment(BenchmarkData.MONTHLY_PAYMENT);
+  }
+
+  @Benchmark
+  public Credit newCredit() {
+    return BenchmarkData.credit();
+  }
+}
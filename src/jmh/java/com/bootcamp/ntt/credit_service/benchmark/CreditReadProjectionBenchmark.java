@@ -0,0 +1,82 @@
+package com.bootcamp.ntt.credit_service.benchmark;
+
+import com.bootcamp.ntt.credit_service.config.MongoConfig;
+import com.bootcamp.ntt.credit_service.dto.OverdueCreditView;
+import com.bootcamp.ntt.credit_service.entity.Credit;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DocumentCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lectura de un crédito desde BSON: documento completo a Credit frente al documento proyectado
+ * (los campos de findOverdueByCustomerId) a OverdueCreditView.
+ * No necesita Mongo: mide la decodificación y el mapeo que hace el driver/converter por documento.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Thread)
+public class CreditReadProjectionBenchmark {
+
+  private static final List<String> PROJECTED_FIELDS =
+    List.of("_id", "creditNumber", "nextPaymentDueDate", "monthlyPayment");
+
+  private final DocumentCodec codec = new DocumentCodec();
+
+  private MappingMongoConverter converter;
+  private RawBsonDocument fullDocument;
+  private RawBsonDocument projectedDocument;
+
+  @Setup
+  public void setUp() {
+    MongoCustomConversions conversions = MongoConfig.customConversions();
+    MongoMappingContext mappingContext = new MongoMappingContext();
+    mappingContext.setInitialEntitySet(Set.of(Credit.class));
+    mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+    mappingContext.afterPropertiesSet();
+    converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+    converter.setCustomConversions(conversions);
+    converter.afterPropertiesSet();
+
+    Credit credit = BenchmarkData.credit();
+    credit.setId("68a0cdde7d68c910da0bc240");
+    Document full = new Document();
+    converter.write(credit, full);
+
+    Document projected = new Document();
+    PROJECTED_FIELDS.forEach(field -> projected.put(field, full.get(field)));
+
+    fullDocument = new RawBsonDocument(full, codec);
+    projectedDocument = new RawBsonDocument(projected, codec);
+    BenchmarkData.reportPayloadSize("bson.credit.full", fullDocument.getByteBuffer().remaining());
+    BenchmarkData.reportPayloadSize("bson.credit.overdueProjection", projectedDocument.getByteBuffer().remaining());
+  }
+
+  @Benchmark
+  public Credit readFullCredit() {
+    return converter.read(Credit.class, fullDocument.decode(codec));
+  }
+
+  @Benchmark
+  public OverdueCreditView readOverdueProjection() {
+    return converter.read(OverdueCreditView.class, projectedDocument.decode(codec));
+  }
+}
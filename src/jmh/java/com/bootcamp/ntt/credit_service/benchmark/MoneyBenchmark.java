@@ -0,0 +1,58 @@
+package com.bootcamp.ntt.credit_service.benchmark;
+
+import com.bootcamp.ntt.credit_service.entity.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Aritmética de un pago de cuota con BigDecimal (implementación anterior) frente a Money.
+ * Correr con -prof gc para comparar gc.alloc.rate.norm.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Thread)
+public class MoneyBenchmark {
+
+  private double requestedAmount = 1250.0;
+  private int totalInstallments = 12;
+
+  private final BigDecimal decimalOriginal = new BigDecimal("15000.00");
+  private final BigDecimal decimalBalance = new BigDecimal("13750.00");
+  private final Money moneyOriginal = Money.ofMinor(15_000_00);
+  private final Money moneyBalance = Money.ofMinor(13_750_00);
+
+  /**
+   * Cuota, validación del monto recibido y nuevo saldo
+   */
+  @Benchmark
+  public BigDecimal paymentWithBigDecimal() {
+    BigDecimal monthly = decimalOriginal.divide(new BigDecimal(totalInstallments), 2, RoundingMode.HALF_UP);
+    BigDecimal payment = BigDecimal.valueOf(requestedAmount);
+    if (payment.compareTo(BigDecimal.ZERO) <= 0 || payment.compareTo(monthly) < 0) {
+      return null;
+    }
+    return decimalBalance.subtract(monthly);
+  }
+
+  @Benchmark
+  public Money paymentWithMoney() {
+    Money monthly = moneyOriginal.divide(totalInstallments);
+    Money payment = Money.of(requestedAmount, RoundingMode.DOWN);
+    if (payment.signum() <= 0 || payment.isLessThan(monthly)) {
+      return null;
+    }
+    return moneyBalance.minus(monthly);
+  }
+}
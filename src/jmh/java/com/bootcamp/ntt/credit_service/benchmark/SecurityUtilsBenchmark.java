@@ -0,0 +1,44 @@
+package com.bootcamp.ntt.credit_service.benchmark;
+
+import com.bootcamp.ntt.credit_service.security.AuthHeaders;
+import com.bootcamp.ntt.credit_service.utils.SecurityUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Extracción de cabeceras de autenticación, que corre en cada petición
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Thread)
+public class SecurityUtilsBenchmark {
+
+  private final SecurityUtils securityUtils = new SecurityUtils();
+  private MockServerWebExchange exchange;
+
+  @Setup
+  public void setUp() {
+    exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/v1/credits")
+      .header("X-Customer-Id", "68a0cdde7d68c910da0bc239")
+      .header("X-User-Role", "CUSTOMER")
+      .header("X-User-Id", "user-1"));
+  }
+
+  @Benchmark
+  public AuthHeaders extractAuthHeaders() {
+    return securityUtils.extractAuthHeaders(exchange).block();
+  }
+}
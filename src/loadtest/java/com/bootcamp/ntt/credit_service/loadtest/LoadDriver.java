@@ -0,0 +1,366 @@
+package com.bootcamp.ntt.credit_service.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.bson.types.ObjectId;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Genera la carga contra la API y registra la latencia de cada operación.
+ * Modelo cerrado (concurrency usuarios sin pausa) o abierto (rate op/s): en el abierto la latencia
+ * se mide desde el instante en que la operación debía empezar, así las esperas por saturación
+ * no desaparecen de los percentiles (omisión coordinada).
+ * Con loadtest.hot-credit todos los pagos van contra un único crédito, para medir la contención
+ * de la escritura condicional; los conflictos se leen de las métricas del servicio.
+ */
+@Slf4j
+final class LoadDriver implements AutoCloseable {
+
+  private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+  private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(1);
+  private static final String WRITE_CONFLICTS = "credit.write.conflicts";
+
+  private final LoadTestSettings settings;
+  private final MeterRegistry serviceMetrics;
+  private final ConnectionProvider connectionProvider;
+  private final WebClient webClient;
+  private final List<String> customerIds;
+  private final List<CreditRef> credits = Collections.synchronizedList(new ArrayList<>());
+  private final Map<Operation, OperationStats> stats = new EnumMap<>(Operation.class);
+  private final Operation[] operations;
+  private final int[] cumulativeWeights;
+  private final AtomicReference<CreditRef> hotCredit = new AtomicReference<>();
+  private final AtomicBoolean replacingHotCredit = new AtomicBoolean();
+  private final LongAdder hotCredits = new LongAdder();
+  private volatile boolean measuring;
+  private volatile LoadReport.WriteConflicts conflictsAtStart = new LoadReport.WriteConflicts(0, 0);
+
+  LoadDriver(LoadTestSettings settings, int port, MeterRegistry serviceMetrics) {
+    this.settings = settings;
+    this.serviceMetrics = serviceMetrics;
+    this.connectionProvider = ConnectionProvider.builder("loadtest")
+      .maxConnections(Math.max(settings.getConcurrency(), settings.getMaxInFlight()))
+      .pendingAcquireMaxCount(-1)
+      .build();
+    this.webClient = WebClient.builder()
+      .baseUrl("http://localhost:" + port + "/api/v1")
+      .clientConnector(new ReactorClientHttpConnector(HttpClient.create(connectionProvider)))
+      .build();
+
+    this.customerIds = new ArrayList<>(settings.getCustomers());
+    for (int i = 0; i < settings.getCustomers(); i++) {
+      customerIds.add(new ObjectId().toHexString());
+    }
+
+    this.operations = settings.getMix().keySet().toArray(new Operation[0]);
+    this.cumulativeWeights = new int[operations.length];
+    int total = 0;
+    for (int i = 0; i < operations.length; i++) {
+      total += settings.getMix().get(operations[i]);
+      cumulativeWeights[i] = total;
+    }
+    if (total <= 0) {
+      throw new IllegalArgumentException("loadtest.mix must have at least one positive weight");
+    }
+    for (Operation operation : Operation.values()) {
+      stats.put(operation, new OperationStats());
+    }
+  }
+
+  /**
+   * Crea los créditos iniciales para que lecturas y pagos tengan sobre qué operar
+   */
+  void seed() {
+    log.info("Seeding {} credits for {} customers", settings.getSeedCredits(), customerIds.size());
+    Flux.range(0, settings.getSeedCredits())
+      .flatMap(i -> create().onErrorResume(error -> {
+        log.warn("Seed credit failed: {}", error.getMessage());
+        return Mono.empty();
+      }), 16)
+      .blockLast();
+    log.info("Seeded {} credits", credits.size());
+
+    if (settings.isHotCredit()) {
+      create().doOnNext(this::useHotCredit).block(REQUEST_TIMEOUT);
+      log.info("Hot credit {}", hotCredit.get().getCreditNumber());
+    }
+  }
+
+  /**
+   * Ejecuta el calentamiento (sin registrar) y luego la medición
+   */
+  LoadReport run() {
+    measuring = false;
+    Duration total = settings.getWarmup().plus(settings.getDuration());
+    Mono.delay(settings.getWarmup()).subscribe(tick -> {
+      stats.values().forEach(OperationStats::reset);
+      hotCredits.reset();
+      if (settings.isHotCredit()) {
+        hotCredits.increment();
+      }
+      conflictsAtStart = writeConflicts();
+      measuring = true;
+      log.info("Warmup finished, measuring for {}", settings.getDuration());
+    });
+
+    long started = System.nanoTime();
+    Flux<Void> load = settings.getRate() > 0 ? openModel(total) : closedModel(total);
+    load.blockLast(total.plus(REQUEST_TIMEOUT));
+    measuring = false;
+
+    Duration measured = Duration.ofNanos(Math.min(System.nanoTime() - started, total.toNanos()))
+      .minus(settings.getWarmup());
+    Map<Operation, LoadReport.OperationResult> results = new EnumMap<>(Operation.class);
+    stats.forEach((operation, operationStats) -> results.put(operation, operationStats.toResult(measured)));
+    return new LoadReport(settings, measured, results, writeConflicts().minus(conflictsAtStart), hotCredits.sum());
+  }
+
+  @Override
+  public void close() {
+    connectionProvider.disposeLater().block(Duration.ofSeconds(5));
+  }
+
+  private Flux<Void> closedModel(Duration total) {
+    long deadline = System.nanoTime() + total.toNanos();
+    return Flux.range(0, settings.getConcurrency())
+      .flatMap(worker -> Mono.defer(() -> execute(nextOperation(), System.nanoTime()))
+        .repeat(() -> System.nanoTime() < deadline), settings.getConcurrency());
+  }
+
+  private Flux<Void> openModel(Duration total) {
+    long intervalNanos = TimeUnit.SECONDS.toNanos(1) / settings.getRate();
+    long ticks = total.toNanos() / intervalNanos;
+    long start = System.nanoTime();
+    // si se alcanza max-in-flight las operaciones esperan en el buffer; su latencia cuenta desde la hora prevista
+    return Flux.interval(Duration.ofNanos(intervalNanos))
+      .take(ticks)
+      .onBackpressureBuffer()
+      .flatMap(tick -> execute(nextOperation(), start + (tick + 1) * intervalNanos), settings.getMaxInFlight());
+  }
+
+  private Operation nextOperation() {
+    int pick = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+    for (int i = 0; i < cumulativeWeights.length; i++) {
+      if (pick < cumulativeWeights[i]) {
+        return operations[i];
+      }
+    }
+    return operations[operations.length - 1];
+  }
+
+  private Mono<Void> execute(Operation operation, long intendedStartNanos) {
+    CreditRef credit = randomCredit();
+    // sin créditos todavía solo tiene sentido crear
+    Operation effective = credit == null ? Operation.CREATE : operation;
+
+    Mono<Outcome> call;
+    switch (effective) {
+      case READ:
+        call = read(credit);
+        break;
+      case PAY:
+        call = settings.isHotCredit() ? pay(hotCredit.get()) : pay(credit);
+        break;
+      case BALANCE:
+        call = balance(credit);
+        break;
+      default:
+        call = create().thenReturn(Outcome.OK);
+    }
+
+    return call
+      .timeout(REQUEST_TIMEOUT)
+      .onErrorResume(error -> Mono.just(classify(error)))
+      .doOnNext(outcome -> {
+        if (measuring) {
+          stats.get(effective).record(System.nanoTime() - intendedStartNanos, outcome);
+        }
+      })
+      .then();
+  }
+
+  private Mono<CreditRef> create() {
+    String customerId = customerIds.get(ThreadLocalRandom.current().nextInt(customerIds.size()));
+    long amount = ThreadLocalRandom.current().nextLong(5_000, 100_001);
+
+    return webClient.post()
+      .uri("/credits")
+      .headers(headers -> authHeaders(headers, customerId))
+      .bodyValue(Map.of("customerId", customerId, "originalAmount", amount))
+      .retrieve()
+      .bodyToMono(JsonNode.class)
+      .map(body -> new CreditRef(
+        body.path("id").asText(),
+        body.path("creditNumber").asText(),
+        customerId,
+        body.path("monthlyPayment").asDouble()))
+      .doOnNext(credits::add);
+  }
+
+  private Mono<Outcome> read(CreditRef credit) {
+    return webClient.get()
+      .uri("/credits/{id}", credit.getId())
+      .headers(headers -> authHeaders(headers, credit.getCustomerId()))
+      .retrieve()
+      .toBodilessEntity()
+      .thenReturn(Outcome.OK);
+  }
+
+  private Mono<Outcome> pay(CreditRef credit) {
+    return webClient.post()
+      .uri("/credits/{creditNumber}/process-payment", credit.getCreditNumber())
+      .headers(headers -> {
+        authHeaders(headers, credit.getCustomerId());
+        headers.set("Idempotency-Key", UUID.randomUUID().toString());
+      })
+      .bodyValue(Map.of("amount", credit.getMonthlyPayment()))
+      .retrieve()
+      .bodyToMono(JsonNode.class)
+      // un crédito ya pagado responde success=false: es una regla de negocio, no un error
+      .map(body -> {
+        if (body.path("success").asBoolean()) {
+          return Outcome.OK;
+        }
+        if ("CREDIT_ALREADY_PAID".equals(body.path("errorCode").asText())) {
+          replaceHotCredit(credit);
+        }
+        return Outcome.REJECTED;
+      });
+  }
+
+  /**
+   * Un crédito tiene pocas cuotas: al quedar pagado, un único reemplazo pasa a recibir los pagos
+   */
+  private void replaceHotCredit(CreditRef paid) {
+    if (paid != hotCredit.get() || !replacingHotCredit.compareAndSet(false, true)) {
+      return;
+    }
+    create()
+      .doOnNext(this::useHotCredit)
+      .doFinally(signal -> replacingHotCredit.set(false))
+      .subscribe(credit -> { }, error -> log.warn("Hot credit replacement failed: {}", error.getMessage()));
+  }
+
+  private void useHotCredit(CreditRef credit) {
+    hotCredit.set(credit);
+    hotCredits.increment();
+  }
+
+  private LoadReport.WriteConflicts writeConflicts() {
+    return new LoadReport.WriteConflicts(writeConflictCount("retried"), writeConflictCount("exhausted"));
+  }
+
+  private long writeConflictCount(String outcome) {
+    Counter counter = serviceMetrics.find(WRITE_CONFLICTS).tag("outcome", outcome).counter();
+    return counter == null ? 0 : (long) counter.count();
+  }
+
+  private Mono<Outcome> balance(CreditRef credit) {
+    return webClient.get()
+      .uri("/credits/{creditNumber}/balance", credit.getCreditNumber())
+      .headers(headers -> authHeaders(headers, credit.getCustomerId()))
+      .retrieve()
+      .toBodilessEntity()
+      .thenReturn(Outcome.OK);
+  }
+
+  private CreditRef randomCredit() {
+    synchronized (credits) {
+      return credits.isEmpty() ? null : credits.get(ThreadLocalRandom.current().nextInt(credits.size()));
+    }
+  }
+
+  private static void authHeaders(HttpHeaders headers, String customerId) {
+    headers.set("X-Customer-Id", customerId);
+    headers.set("X-User-Role", "CUSTOMER");
+    headers.set("X-User-Id", "loadtest-" + customerId);
+  }
+
+  /**
+   * Los 4xx son rechazos de negocio; 5xx, timeouts y errores de conexión cuentan como error
+   */
+  private static Outcome classify(Throwable error) {
+    if (error instanceof WebClientResponseException
+      && HttpStatus.valueOf(((WebClientResponseException) error).getRawStatusCode()).is4xxClientError()) {
+      return Outcome.REJECTED;
+    }
+    return Outcome.ERROR;
+  }
+
+  enum Outcome {
+    OK,
+    REJECTED,
+    ERROR
+  }
+
+  @Value
+  static class CreditRef {
+    String id;
+    String creditNumber;
+    String customerId;
+    double monthlyPayment;
+  }
+
+  /**
+   * Latencias (HdrHistogram, 3 dígitos significativos) y conteo de resultados de una operación
+   */
+  static final class OperationStats {
+
+    private final Recorder recorder = new Recorder(HIGHEST_TRACKABLE_NANOS, 3);
+    private final LongAdder ok = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+
+    void record(long latencyNanos, Outcome outcome) {
+      recorder.recordValue(Math.min(latencyNanos, HIGHEST_TRACKABLE_NANOS));
+      switch (outcome) {
+        case OK:
+          ok.increment();
+          break;
+        case REJECTED:
+          rejected.increment();
+          break;
+        default:
+          errors.increment();
+      }
+    }
+
+    void reset() {
+      recorder.reset();
+      ok.reset();
+      rejected.reset();
+      errors.reset();
+    }
+
+    LoadReport.OperationResult toResult(Duration measured) {
+      Histogram histogram = recorder.getIntervalHistogram();
+      return LoadReport.OperationResult.of(histogram, ok.sum(), rejected.sum(), errors.sum(), measured);
+    }
+  }
+}
@@ -0,0 +1,156 @@
+package com.bootcamp.ntt.credit_service.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.Value;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Resultado de la corrida: tabla por consola y JSON para comparar entre corridas
+ */
+@Value
+class LoadReport {
+
+  private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+  LoadTestSettings settings;
+  Duration measured;
+  Map<Operation, OperationResult> results;
+  WriteConflicts writeConflicts;
+  // créditos que recibieron los pagos en modo hot-credit
+  long hotCredits;
+
+  long totalRequests() {
+    return results.values().stream().mapToLong(OperationResult::getCount).sum();
+  }
+
+  double errorRate() {
+    long total = totalRequests();
+    return total == 0 ? 0 : results.values().stream().mapToLong(OperationResult::getErrors).sum() / (double) total;
+  }
+
+  String toTable() {
+    StringBuilder table = new StringBuilder(String.format(Locale.ROOT,
+      "%-8s %9s %9s %9s %7s %9s %9s %9s %9s %9s %9s%n",
+      "op", "count", "rejected", "errors", "rps", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "mean ms"));
+    results.forEach((operation, result) -> table.append(String.format(Locale.ROOT,
+      "%-8s %9d %9d %9d %7.1f %9.2f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+      operation.name().toLowerCase(Locale.ROOT), result.getCount(), result.getRejected(), result.getErrors(),
+      result.getThroughput(), result.getP50Ms(), result.getP90Ms(), result.getP99Ms(), result.getP999Ms(),
+      result.getMaxMs(), result.getMeanMs())));
+    table.append(String.format(Locale.ROOT, "total %d requests in %ds, error rate %.4f%n",
+      totalRequests(), measured.getSeconds(), errorRate()));
+    table.append(String.format(Locale.ROOT, "write conflicts: %d retried, %d exhausted",
+      writeConflicts.getRetried(), writeConflicts.getExhausted()));
+    if (settings.isHotCredit()) {
+      table.append(String.format(Locale.ROOT, " (hot credit: %d credits, %.2f retries per paid installment)",
+        hotCredits, retriesPerPayment()));
+    }
+    return table.append(String.format("%n")).toString();
+  }
+
+  void write(String reportPath, Collection<StubDownstreamServer> stubs) throws IOException {
+    ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    ObjectNode root = objectMapper.createObjectNode();
+
+    ObjectNode config = root.putObject("settings");
+    config.put("model", settings.getRate() > 0 ? "open" : "closed");
+    config.put("concurrency", settings.getConcurrency());
+    config.put("rate", settings.getRate());
+    config.put("warmupSeconds", settings.getWarmup().getSeconds());
+    config.put("durationSeconds", measured.getSeconds());
+    config.put("mix", settings.getMix().toString());
+    config.put("customers", settings.getCustomers());
+    config.put("seedCredits", settings.getSeedCredits());
+    config.put("hotCredit", settings.isHotCredit());
+
+    ObjectNode operations = root.putObject("operations");
+    results.forEach((operation, result) ->
+      operations.set(operation.name().toLowerCase(Locale.ROOT), objectMapper.valueToTree(result)));
+    root.put("totalRequests", totalRequests());
+    root.put("errorRate", errorRate());
+
+    ObjectNode conflicts = root.putObject("writeConflicts");
+    conflicts.put("retried", writeConflicts.getRetried());
+    conflicts.put("exhausted", writeConflicts.getExhausted());
+    conflicts.put("retriesPerPayment", retriesPerPayment());
+    if (settings.isHotCredit()) {
+      conflicts.put("hotCredits", hotCredits);
+    }
+
+    ObjectNode downstream = root.putObject("downstream");
+    for (StubDownstreamServer stub : stubs) {
+      ObjectNode node = downstream.putObject(stub.getServiceName());
+      node.put("requests", stub.getRequests());
+      node.put("injectedFailures", stub.getFailures());
+    }
+
+    Path path = Paths.get(reportPath);
+    if (path.getParent() != null) {
+      Files.createDirectories(path.getParent());
+    }
+    objectMapper.writeValue(path.toFile(), root);
+  }
+
+  /**
+   * Reintentos por pago aplicado; en modo hot-credit mide el costo de la contención
+   */
+  double retriesPerPayment() {
+    long paid = results.get(Operation.PAY).getOk();
+    return paid == 0 ? 0 : writeConflicts.getRetried() / (double) paid;
+  }
+
+  /**
+   * Conflictos de escritura del servicio (métrica credit.write.conflicts) durante la medición
+   */
+  @Value
+  static class WriteConflicts {
+    long retried;
+    long exhausted;
+
+    WriteConflicts minus(WriteConflicts baseline) {
+      return new WriteConflicts(retried - baseline.retried, exhausted - baseline.exhausted);
+    }
+  }
+
+  @Value
+  static class OperationResult {
+    long count;
+    long ok;
+    long rejected;
+    long errors;
+    double throughput;
+    double p50Ms;
+    double p90Ms;
+    double p99Ms;
+    double p999Ms;
+    double maxMs;
+    double meanMs;
+
+    static OperationResult of(Histogram histogram, long ok, long rejected, long errors, Duration measured) {
+      double seconds = Math.max(measured.toMillis(), 1) / 1000.0;
+      return new OperationResult(
+        ok + rejected + errors,
+        ok,
+        rejected,
+        errors,
+        (ok + rejected + errors) / seconds,
+        histogram.getValueAtPercentile(50) / NANOS_PER_MILLI,
+        histogram.getValueAtPercentile(90) / NANOS_PER_MILLI,
+        histogram.getValueAtPercentile(99) / NANOS_PER_MILLI,
+        histogram.getValueAtPercentile(99.9) / NANOS_PER_MILLI,
+        histogram.getMaxValue() / NANOS_PER_MILLI,
+        histogram.getMean() / NANOS_PER_MILLI);
+    }
+  }
+}
@@ -0,0 +1,100 @@
+package com.bootcamp.ntt.credit_service.loadtest;
+
+import com.bootcamp.ntt.credit_service.CreditServiceApplication;
+import de.flapdoodle.embed.process.runtime.Network;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import redis.embedded.RedisServer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Prueba de carga autocontenida: levanta Redis y Kafka embebidos, stubs de customer-service y card-service,
+ * arranca el servicio con el perfil "loadtest" (Mongo embebido en replica set, o loadtest.mongo-uri)
+ * y ejecuta la mezcla de operaciones. Termina con código 1 si la tasa de error supera loadtest.max-error-rate.
+ */
+@Slf4j
+public final class LoadTestRunner {
+
+  private LoadTestRunner() {
+  }
+
+  public static void main(String[] args) throws Exception {
+    // devtools relanzaría main en otro classloader y levantaría todo dos veces
+    System.setProperty("spring.devtools.restart.enabled", "false");
+    LoadTestSettings settings = LoadTestSettings.fromSystemProperties();
+    int redisPort = Network.getFreeServerPort();
+    RedisServer redis = new RedisServer(redisPort);
+    EmbeddedKafkaBroker kafka = new EmbeddedKafkaBroker(1, false, 1, "credit.lifecycle", "credit.payments");
+    StubDownstreamServer customerService = null;
+    StubDownstreamServer cardService = null;
+    ConfigurableApplicationContext context = null;
+    LoadReport report;
+
+    try {
+      redis.start();
+      kafka.afterPropertiesSet();
+      customerService = StubDownstreamServer.customerService(settings.getCustomerService());
+      cardService = StubDownstreamServer.cardService(settings.getCardService());
+
+      context = new SpringApplicationBuilder(CreditServiceApplication.class)
+        .run(applicationArgs(settings, redisPort, kafka.getBrokersAsString(), customerService, cardService));
+      int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+      log.info("Service started on port {}", port);
+
+      try (LoadDriver driver = new LoadDriver(settings, port, context.getBean(MeterRegistry.class))) {
+        driver.seed();
+        report = driver.run();
+      }
+
+      List<StubDownstreamServer> stubs = List.of(customerService, cardService);
+      report.write(settings.getReportPath(), stubs);
+      System.out.print(report.toTable());
+      log.info("Report written to {}", settings.getReportPath());
+    } finally {
+      if (context != null) {
+        context.close();
+      }
+      if (cardService != null) {
+        cardService.close();
+      }
+      if (customerService != null) {
+        customerService.close();
+      }
+      kafka.destroy();
+      redis.stop();
+    }
+
+    if (report.errorRate() > settings.getMaxErrorRate()) {
+      log.error("Error rate {} exceeds the allowed {}", report.errorRate(), settings.getMaxErrorRate());
+      System.exit(1);
+    }
+    System.exit(0);
+  }
+
+  /**
+   * Argumentos de línea de comandos: tienen la mayor precedencia y también los ve el contexto de bootstrap
+   */
+  private static String[] applicationArgs(LoadTestSettings settings, int redisPort, String kafkaBrokers,
+                                          StubDownstreamServer customerService, StubDownstreamServer cardService) {
+    List<String> args = new ArrayList<>();
+    args.add("--spring.profiles.active=loadtest");
+    args.add("--spring.cloud.config.enabled=false");
+    args.add("--server.port=0");
+    args.add("--spring.redis.host=localhost");
+    args.add("--spring.redis.port=" + redisPort);
+    args.add("--spring.kafka.bootstrap-servers=" + kafkaBrokers);
+    args.add("--spring.cloud.discovery.client.simple.instances.customer-service[0].uri=" + customerService.getUri());
+    args.add("--spring.cloud.discovery.client.simple.instances.card-service[0].uri=" + cardService.getUri());
+    if (settings.getMongoUri() != null) {
+      args.add("--spring.data.mongodb.uri=" + settings.getMongoUri());
+      args.add("--spring.autoconfigure.exclude="
+        + "org.springframework.boot.autoconfigure.mongo.embedded.EmbeddedMongoAutoConfiguration");
+    }
+    return args.toArray(new String[0]);
+  }
+}
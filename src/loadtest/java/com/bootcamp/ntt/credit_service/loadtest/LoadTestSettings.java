@@ -0,0 +1,91 @@
+package com.bootcamp.ntt.credit_service.loadtest;
+
+import lombok.Builder;
+import lombok.Value;
+import org.springframework.boot.convert.DurationStyle;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Parámetros de la prueba, leídos de system properties (-Dloadtest.*)
+ */
+@Value
+@Builder
+class LoadTestSettings {
+
+  Duration warmup;
+  Duration duration;
+  // modelo cerrado: usuarios concurrentes sin pausa
+  int concurrency;
+  // modelo abierto: operaciones por segundo; 0 usa el modelo cerrado
+  int rate;
+  int maxInFlight;
+  Map<Operation, Integer> mix;
+  int customers;
+  int seedCredits;
+  // todos los pagos contra un mismo crédito, que se reemplaza al quedar pagado
+  boolean hotCredit;
+  StubSettings customerService;
+  StubSettings cardService;
+  // Mongo existente (replica set) en lugar del embebido
+  String mongoUri;
+  String reportPath;
+  double maxErrorRate;
+
+  static LoadTestSettings fromSystemProperties() {
+    return LoadTestSettings.builder()
+      .warmup(duration("loadtest.warmup", "15s"))
+      .duration(duration("loadtest.duration", "60s"))
+      .concurrency(Integer.getInteger("loadtest.concurrency", 32))
+      .rate(Integer.getInteger("loadtest.rate", 0))
+      .maxInFlight(Integer.getInteger("loadtest.max-in-flight", 512))
+      .mix(mix(System.getProperty("loadtest.mix", "create=10,read=40,pay=20,balance=30")))
+      .customers(Integer.getInteger("loadtest.customers", 200))
+      .seedCredits(Integer.getInteger("loadtest.seed-credits", 500))
+      .hotCredit(Boolean.getBoolean("loadtest.hot-credit"))
+      .customerService(StubSettings.fromSystemProperties("loadtest.customer-service", "20ms"))
+      .cardService(StubSettings.fromSystemProperties("loadtest.card-service", "30ms"))
+      .mongoUri(System.getProperty("loadtest.mongo-uri"))
+      .reportPath(System.getProperty("loadtest.report", "target/loadtest-report.json"))
+      .maxErrorRate(Double.parseDouble(System.getProperty("loadtest.max-error-rate", "0.01")))
+      .build();
+  }
+
+  /**
+   * "create=10,read=40,pay=20,balance=30": pesos relativos de cada operación
+   */
+  static Map<Operation, Integer> mix(String spec) {
+    Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+    for (String entry : spec.split(",")) {
+      String[] parts = entry.trim().split("=");
+      if (parts.length != 2) {
+        throw new IllegalArgumentException("Invalid loadtest.mix entry: " + entry);
+      }
+      weights.put(Operation.valueOf(parts[0].trim().toUpperCase()), Integer.parseInt(parts[1].trim()));
+    }
+    return weights;
+  }
+
+  private static Duration duration(String property, String defaultValue) {
+    return DurationStyle.detectAndParse(System.getProperty(property, defaultValue));
+  }
+
+  /**
+   * Comportamiento de un stub: latencia base + jitter aleatorio y fracción de respuestas 503
+   */
+  @Value
+  static class StubSettings {
+    Duration latency;
+    Duration jitter;
+    double errorRate;
+
+    static StubSettings fromSystemProperties(String prefix, String defaultLatency) {
+      return new StubSettings(
+        duration(prefix + ".latency", defaultLatency),
+        duration(prefix + ".jitter", "10ms"),
+        Double.parseDouble(System.getProperty(prefix + ".error-rate", "0")));
+    }
+  }
+}
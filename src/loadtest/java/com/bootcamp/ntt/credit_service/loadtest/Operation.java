@@ -0,0 +1,11 @@
+package com.bootcamp.ntt.credit_service.loadtest;
+
+/**
+ * Operaciones que mezcla la carga
+ */
+enum Operation {
+  CREATE,
+  READ,
+  PAY,
+  BALANCE
+}
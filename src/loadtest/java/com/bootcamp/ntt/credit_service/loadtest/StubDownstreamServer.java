@@ -0,0 +1,110 @@
+package com.bootcamp.ntt.credit_service.loadtest;
+
+import com.bootcamp.ntt.credit_service.loadtest.LoadTestSettings.StubSettings;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerRequest;
+import reactor.netty.http.server.HttpServerResponse;
+import reactor.netty.http.server.HttpServerRoutes;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Stub HTTP de un servicio externo con latencia y tasa de error configurables
+ */
+final class StubDownstreamServer implements AutoCloseable {
+
+  private final String serviceName;
+  private final StubSettings settings;
+  private final AtomicLong requests = new AtomicLong();
+  private final AtomicLong failures = new AtomicLong();
+  private DisposableServer server;
+
+  private StubDownstreamServer(String serviceName, StubSettings settings) {
+    this.serviceName = serviceName;
+    this.settings = settings;
+  }
+
+  /**
+   * GET /customers/{id}: todos los clientes son ENTERPRISE para que la regla de un crédito por persona no rechace las altas
+   */
+  static StubDownstreamServer customerService(StubSettings settings) {
+    StubDownstreamServer stub = new StubDownstreamServer("customer-service", settings);
+    return stub.start(routes -> routes.get("/customers/{id}", stub.handler(request ->
+      "{\"id\":\"" + request.param("id") + "\",\"customerType\":\"ENTERPRISE\"}")));
+  }
+
+  /**
+   * GET /api/v1/credit-cards/customers/{id}/product-eligibility: siempre elegible
+   */
+  static StubDownstreamServer cardService(StubSettings settings) {
+    StubDownstreamServer stub = new StubDownstreamServer("card-service", settings);
+    return stub.start(routes -> routes.get("/api/v1/credit-cards/customers/{id}/product-eligibility",
+      stub.handler(request -> "{\"isEligible\":true}")));
+  }
+
+  String getServiceName() {
+    return serviceName;
+  }
+
+  String getUri() {
+    return "http://localhost:" + server.port();
+  }
+
+  long getRequests() {
+    return requests.get();
+  }
+
+  long getFailures() {
+    return failures.get();
+  }
+
+  @Override
+  public void close() {
+    if (server != null) {
+      server.disposeNow();
+    }
+  }
+
+  private StubDownstreamServer start(Consumer<HttpServerRoutes> routes) {
+    server = HttpServer.create()
+      .port(0)
+      .route(routes)
+      .bindNow();
+    return this;
+  }
+
+  private BiFunction<HttpServerRequest, HttpServerResponse, Mono<Void>> handler(
+    Function<HttpServerRequest, String> body) {
+
+    return (request, response) -> {
+      requests.incrementAndGet();
+      boolean fail = ThreadLocalRandom.current().nextDouble() < settings.getErrorRate();
+
+      return Mono.delay(nextLatency())
+        .then(Mono.defer(() -> {
+          if (fail) {
+            failures.incrementAndGet();
+            return response.status(HttpResponseStatus.SERVICE_UNAVAILABLE).send().then();
+          }
+          return response.header(HttpHeaderNames.CONTENT_TYPE, "application/json")
+            .sendString(Mono.just(body.apply(request)))
+            .then();
+        }));
+    };
+  }
+
+  private Duration nextLatency() {
+    long jitterNanos = settings.getJitter().toNanos();
+    long extra = jitterNanos > 0 ? ThreadLocalRandom.current().nextLong(jitterNanos + 1) : 0;
+    return settings.getLatency().plusNanos(extra);
+  }
+}
@@ -18,7 +18,7 @@ import reactor.core.publisher.Mono;
 @Slf4j
 public class CardServiceClient {
 
-  private final WebClient webClient;
+  private final WebClient cardServiceWebClient;
 
   @Value("${services.card.service-name:card-service}")
   private String cardServiceUrl;
@@ -31,7 +31,7 @@ public class CardServiceClient {
     String userRole = exchange.getRequest().getHeaders().getFirst("X-User-Role");
     String userId = exchange.getRequest().getHeaders().getFirst("X-User-Id");
 
-    return webClient
+    return cardServiceWebClient
       .get()
       .uri( cardServiceUrl + "/api/v1/credit-cards/customers/{id}/product-eligibility", customerId)
       .header("X-Customer-Id", customerIdHeader)
@@ -16,7 +16,7 @@ import reactor.core.publisher.Mono;
 @Slf4j
 public class CustomerServiceClient {
 
-  private final WebClient webClient;
+  private final WebClient customerServiceWebClient;
 
   @Value("${services.customer.service-name:customer-service}")
   private String customerServiceUrl;
@@ -24,7 +24,7 @@ public class CustomerServiceClient {
   public Mono<CustomerTypeResponse> getCustomerType(String customerId) {
     log.debug("Fetching customer type for ID: {}", customerId);
 
-    return webClient
+    return customerServiceWebClient
       .get()
       .uri(customerServiceUrl + "/customers/{id}", customerId)
       .retrieve()
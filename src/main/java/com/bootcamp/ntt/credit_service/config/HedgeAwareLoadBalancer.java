@@ -0,0 +1,86 @@
+package com.bootcamp.ntt.credit_service.config;
+
+import com.bootcamp.ntt.credit_service.utils.HedgeRouting;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Round robin que respeta la pista de hedging: si la petición lleva un HedgeRouting con instancia excluida
+ * y hay otras disponibles, elige entre las demás. Anota la instancia elegida para que el hedge la evite.
+ */
+@Slf4j
+public class HedgeAwareLoadBalancer implements ReactorServiceInstanceLoadBalancer {
+
+  private final ObjectProvider<ServiceInstanceListSupplier> serviceInstanceListSupplierProvider;
+  private final String serviceId;
+  private final AtomicInteger position = new AtomicInteger(new Random().nextInt(1000));
+
+  public HedgeAwareLoadBalancer(ObjectProvider<ServiceInstanceListSupplier> serviceInstanceListSupplierProvider,
+                                String serviceId) {
+    this.serviceInstanceListSupplierProvider = serviceInstanceListSupplierProvider;
+    this.serviceId = serviceId;
+  }
+
+  @Override
+  public Mono<Response<ServiceInstance>> choose(Request request) {
+    ServiceInstanceListSupplier supplier = serviceInstanceListSupplierProvider
+      .getIfAvailable(NoopServiceInstanceListSupplier::new);
+    HedgeRouting routing = hedgeRouting(request);
+
+    return supplier.get(request).next()
+      .map(instances -> choose(instances, routing));
+  }
+
+  private Response<ServiceInstance> choose(List<ServiceInstance> instances, HedgeRouting routing) {
+    if (instances.isEmpty()) {
+      log.warn("No servers available for service: {}", serviceId);
+      return new EmptyResponse();
+    }
+
+    List<ServiceInstance> candidates = instances;
+    String excluded = routing != null ? routing.getExcludedInstance() : null;
+    if (excluded != null && instances.size() > 1) {
+      candidates = instances.stream()
+        .filter(instance -> !excluded.equals(instanceKey(instance)))
+        .collect(Collectors.toList());
+    }
+
+    int index = (position.incrementAndGet() & Integer.MAX_VALUE) % candidates.size();
+    ServiceInstance chosen = candidates.get(index);
+    if (routing != null) {
+      routing.onInstanceChosen(instanceKey(chosen));
+    }
+    return new DefaultResponse(chosen);
+  }
+
+  private static HedgeRouting hedgeRouting(Request request) {
+    if (!(request.getContext() instanceof RequestDataContext)) {
+      return null;
+    }
+    Object routing = ((RequestDataContext) request.getContext()).getClientRequest().getAttributes()
+      .get(HedgeRouting.KEY);
+    return routing instanceof HedgeRouting ? (HedgeRouting) routing : null;
+  }
+
+  /**
+   * host:port identifica la instancia aunque el discovery no informe instanceId
+   */
+  private static String instanceKey(ServiceInstance instance) {
+    return instance.getHost() + ":" + instance.getPort();
+  }
+}
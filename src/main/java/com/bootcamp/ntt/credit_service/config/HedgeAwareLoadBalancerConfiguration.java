@@ -0,0 +1,23 @@
+package com.bootcamp.ntt.credit_service.config;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.loadbalancer.core.ReactorLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+/**
+ * Configuración de los contextos hijos del load balancer (uno por servicio).
+ * Sin @Configuration a propósito: la registra @LoadBalancerClients, no el escaneo de componentes.
+ */
+public class HedgeAwareLoadBalancerConfiguration {
+
+  @Bean
+  public ReactorLoadBalancer<ServiceInstance> hedgeAwareLoadBalancer(Environment environment,
+                                                                     LoadBalancerClientFactory loadBalancerClientFactory) {
+    String serviceId = environment.getProperty(LoadBalancerClientFactory.PROPERTY_NAME);
+    return new HedgeAwareLoadBalancer(
+      loadBalancerClientFactory.getLazyProvider(serviceId, ServiceInstanceListSupplier.class), serviceId);
+  }
+}
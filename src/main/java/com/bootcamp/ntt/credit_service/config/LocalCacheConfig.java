@@ -0,0 +1,42 @@
+package com.bootcamp.ntt.credit_service.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Cache L1 en memoria delante de Redis.
+ * Acotado por tamaño y TTL para no servir datos viejos por mucho tiempo.
+ */
+@Configuration
+public class LocalCacheConfig {
+
+  private static final String CACHE_NAME = "credit-l1";
+
+  @Bean
+  public Cache<String, Object> creditLocalCache(
+    MeterRegistry meterRegistry,
+    @Value("${cache.l1.max-size:10000}") long maxSize,
+    @Value("${cache.l1.ttl:30s}") Duration ttl) {
+
+    Cache<String, Object> cache = Caffeine.newBuilder()
+      .maximumSize(maxSize)
+      .expireAfterWrite(ttl)
+      .recordStats()
+      .build();
+
+    CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    Gauge.builder("credit.cache.l1.hit.ratio", cache, c -> c.stats().hitRate())
+      .description("Hit ratio of the in-process credit cache")
+      .register(meterRegistry);
+
+    return cache;
+  }
+}
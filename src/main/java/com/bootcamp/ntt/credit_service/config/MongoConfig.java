@@ -1,10 +1,21 @@
 package com.bootcamp.ntt.credit_service.config;
 
+import com.bootcamp.ntt.credit_service.entity.Money;
+import org.bson.types.Decimal128;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+import org.springframework.data.convert.WritingConverter;
 import org.springframework.data.domain.AuditorAware;
+import org.springframework.data.mongodb.ReactiveMongoDatabaseFactory;
+import org.springframework.data.mongodb.ReactiveMongoTransactionManager;
 import org.springframework.data.mongodb.config.EnableReactiveMongoAuditing;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.transaction.ReactiveTransactionManager;
+import org.springframework.transaction.reactive.TransactionalOperator;
 
+import java.util.List;
 import java.util.Optional;
 
 @Configuration
@@ -14,4 +25,82 @@ public class MongoConfig {
   public AuditorAware<String> auditorProvider(){
     return () -> Optional.of("system");
   }
+
+  @Bean
+  public MongoCustomConversions mongoCustomConversions() {
+    return customConversions();
+  }
+
+  /**
+   * Conversiones propias del servicio; estático para reusarlo donde se arma un MongoTemplate a mano
+   */
+  public static MongoCustomConversions customConversions() {
+    return new MongoCustomConversions(List.of(
+      MoneyToDecimal128Converter.INSTANCE,
+      Decimal128ToMoneyConverter.INSTANCE,
+      StringToMoneyConverter.INSTANCE,
+      DoubleToMoneyConverter.INSTANCE));
+  }
+
+  /**
+   * Transacciones multi-documento (crédito + outbox). Requiere que Mongo corra como replica set.
+   */
+  @Bean
+  public ReactiveMongoTransactionManager transactionManager(ReactiveMongoDatabaseFactory databaseFactory) {
+    return new ReactiveMongoTransactionManager(databaseFactory);
+  }
+
+  @Bean
+  public TransactionalOperator transactionalOperator(ReactiveTransactionManager transactionManager) {
+    return TransactionalOperator.create(transactionManager);
+  }
+
+  /**
+   * Los montos se guardan como Decimal128: exactos y comparables numéricamente en queries
+   */
+  @WritingConverter
+  enum MoneyToDecimal128Converter implements Converter<Money, Decimal128> {
+    INSTANCE;
+
+    @Override
+    public Decimal128 convert(Money source) {
+      return new Decimal128(source.toBigDecimal());
+    }
+  }
+
+  @ReadingConverter
+  enum Decimal128ToMoneyConverter implements Converter<Decimal128, Money> {
+    INSTANCE;
+
+    @Override
+    public Money convert(Decimal128 source) {
+      return Money.of(source.bigDecimalValue());
+    }
+  }
+
+  /**
+   * Documentos anteriores guardaban los BigDecimal como texto
+   */
+  @ReadingConverter
+  enum StringToMoneyConverter implements Converter<String, Money> {
+    INSTANCE;
+
+    @Override
+    public Money convert(String source) {
+      return Money.parse(source);
+    }
+  }
+
+  /**
+   * Montos cargados a mano desde el shell suelen quedar como double
+   */
+  @ReadingConverter
+  enum DoubleToMoneyConverter implements Converter<Double, Money> {
+    INSTANCE;
+
+    @Override
+    public Money convert(Double source) {
+      return Money.of(source);
+    }
+  }
 }
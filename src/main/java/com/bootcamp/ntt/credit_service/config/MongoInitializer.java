@@ -0,0 +1,107 @@
+package com.bootcamp.ntt.credit_service.config;
+
+import com.bootcamp.ntt.credit_service.entity.Credit;
+import com.bootcamp.ntt.credit_service.entity.CustomerTypeProjection;
+import com.mongodb.client.result.UpdateResult;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.ConvertOperators;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.schema.JsonSchemaObject;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Tareas de preparación de la base de datos al arrancar
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MongoInitializer implements SmartInitializingSingleton {
+
+  private static final List<String> MONEY_FIELDS = List.of("originalAmount", "currentBalance", "monthlyPayment");
+
+  // entidades cuyos índices declarados (@Indexed / @CompoundIndex) se crean al arrancar
+  private static final List<Class<?>> INDEXED_ENTITIES = List.of(Credit.class, CustomerTypeProjection.class);
+
+  private final ReactiveMongoTemplate mongoTemplate;
+
+  @Value("${credit.startup.version-backfill-timeout:2m}")
+  private Duration versionBackfillTimeout;
+
+  /**
+   * Se completa antes de que arranque el servidor web: un crédito sin versión guardado antes
+   * del backfill se trataría como nuevo. Los que una réplica anterior vuelva a dejar sin versión
+   * se inicializan al guardarlos (CreditServiceImpl.withVersion).
+   */
+  @Override
+  public void afterSingletonsInstantiated() {
+    Long updated = backfillCreditVersions().block(versionBackfillTimeout);
+    log.info("Credit version backfill - documents updated: {}", updated);
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void initialize() {
+    ensureIndexes().subscribe(
+      created -> log.info("Mongo indexes ensured: {}", created),
+      error -> log.error("Mongo index creation failed: {}", error.getMessage()));
+    backfillMoneyFields();
+  }
+
+  /**
+   * Crea los índices declarados en las entidades. ensureIndex es idempotente si el índice ya existe.
+   * @return cantidad de índices verificados
+   */
+  public Mono<Long> ensureIndexes() {
+    MongoPersistentEntityIndexResolver resolver =
+      new MongoPersistentEntityIndexResolver(mongoTemplate.getConverter().getMappingContext());
+
+    return Flux.fromIterable(INDEXED_ENTITIES)
+      .concatMap(entity -> Flux.fromIterable(resolver.resolveIndexFor(entity))
+        .concatMap(index -> mongoTemplate.indexOps(entity).ensureIndex(index))
+        .doOnNext(name -> log.debug("Index ensured on {}: {}", entity.getSimpleName(), name)))
+      .count();
+  }
+
+  /**
+   * Los créditos creados antes de @Version no tienen el campo y Spring Data los trataría como nuevos al guardar
+   * @return cantidad de documentos actualizados
+   */
+  public Mono<Long> backfillCreditVersions() {
+    return mongoTemplate.updateMulti(
+        Query.query(Criteria.where("version").exists(false)),
+        new Update().set("version", 0L),
+        Credit.class)
+      .map(UpdateResult::getModifiedCount);
+  }
+
+  /**
+   * Los montos se guardaban como texto; se pasan a Decimal128 para que el tipo sea uniforme.
+   * La lectura acepta ambos formatos, así que el servicio funciona mientras esto corre.
+   */
+  private void backfillMoneyFields() {
+    Flux.fromIterable(MONEY_FIELDS)
+      .concatMap(field -> mongoTemplate.updateMulti(
+        Query.query(Criteria.where(field).type(JsonSchemaObject.Type.STRING)),
+        AggregationUpdate.update().set(field).toValue(ConvertOperators.ToDecimal.toDecimal("$" + field)),
+        Credit.class))
+      .map(UpdateResult::getModifiedCount)
+      .reduce(0L, Long::sum)
+      .subscribe(
+        updated -> log.info("Credit money backfill - fields converted: {}", updated),
+        error -> log.error("Credit money backfill failed: {}", error.getMessage()));
+  }
+}
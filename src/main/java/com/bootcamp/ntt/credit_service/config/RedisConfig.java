@@ -1,16 +1,17 @@
 package com.bootcamp.ntt.credit_service.config;
 
+import com.bootcamp.ntt.credit_service.utils.CacheValueCodec;
 import com.fasterxml.jackson.annotation.JsonAutoDetect;
 import com.fasterxml.jackson.annotation.PropertyAccessor;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
 import org.springframework.data.redis.core.ReactiveRedisTemplate;
-import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
@@ -21,10 +22,32 @@ import java.text.SimpleDateFormat;
 @EnableCaching
 public class RedisConfig {
 
+  /**
+   * cache.codec=json (por defecto) escribe JSON; smile escribe el formato binario. En ambos casos se leen los dos.
+   * Las versiones anteriores solo leen JSON, así que el cambio va en dos pasos: desplegar esta versión
+   * con json en todas las réplicas y recién entonces pasar a smile. Para volver a una versión anterior,
+   * primero se vuelve a json y se espera a que venzan (o se borran) las entradas Smile del cache.
+   */
   @Bean
   public ReactiveRedisTemplate<String, Object> reactiveRedisTemplate(
-    ReactiveRedisConnectionFactory factory) {
+    ReactiveRedisConnectionFactory factory,
+    @Value("${cache.codec:json}") String codec) {
 
+    CacheValueCodec valueCodec = new CacheValueCodec(legacyJsonSerializer(), "smile".equalsIgnoreCase(codec));
+
+    RedisSerializationContext<String, Object> context =
+      RedisSerializationContext.<String, Object>newSerializationContext(
+          new StringRedisSerializer())
+        .value(valueCodec)
+        .build();
+
+    return new ReactiveRedisTemplate<>(factory, context);
+  }
+
+  /**
+   * Serializador JSON con tipado por defecto usado antes del codec binario
+   */
+  public static Jackson2JsonRedisSerializer<Object> legacyJsonSerializer() {
     Jackson2JsonRedisSerializer<Object> jsonSerializer =
       new Jackson2JsonRedisSerializer<>(Object.class);
 
@@ -42,13 +65,6 @@ public class RedisConfig {
     );
 
     jsonSerializer.setObjectMapper(objectMapper);
-
-    RedisSerializationContext<String, Object> context =
-      RedisSerializationContext.<String, Object>newSerializationContext(
-          new StringRedisSerializer())
-        .value(jsonSerializer)
-        .build();
-
-    return new ReactiveRedisTemplate<>(factory, context);
+    return jsonSerializer;
   }
 }
@@ -1,33 +1,69 @@
 package com.bootcamp.ntt.credit_service.config;
 
+import com.bootcamp.ntt.credit_service.utils.HedgingPolicy;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
 import io.github.resilience4j.timelimiter.TimeLimiter;
 import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+
 @Configuration
 @RequiredArgsConstructor
 public class Resilience4jConfig {
 
   private final CircuitBreakerRegistry circuitBreakerRegistry;
   private final TimeLimiterRegistry timeLimiterRegistry;
+  private final BulkheadRegistry bulkheadRegistry;
+  private final MeterRegistry meterRegistry;
+
+  @Value("${credit.hedging.enabled:false}")
+  private boolean hedgingEnabled;
+
+  @Value("${credit.hedging.percentile:0.95}")
+  private double hedgingPercentile;
+
+  @Value("${credit.hedging.window-size:256}")
+  private int hedgingWindowSize;
+
+  @Value("${credit.hedging.min-samples:20}")
+  private int hedgingMinSamples;
+
+  @Value("${credit.hedging.min-delay:10ms}")
+  private Duration hedgingMinDelay;
+
+  // por debajo del timeout de 2s para que el hedge tenga tiempo de responder
+  @Value("${credit.hedging.max-delay:1s}")
+  private Duration hedgingMaxDelay;
+
+  @Value("${credit.hedging.budget-ratio:0.1}")
+  private double hedgingBudgetRatio;
+
+  @Value("${credit.hedging.budget-max-tokens:10}")
+  private int hedgingBudgetMaxTokens;
 
   @Bean
   public CircuitBreaker customerServiceCircuitBreaker() {
-    return circuitBreakerRegistry.circuitBreaker("customer-service");
+    return withTransitionMetrics(circuitBreakerRegistry.circuitBreaker("customer-service"));
   }
 
   @Bean
   public CircuitBreaker cardServiceCircuitBreaker() {
-    return circuitBreakerRegistry.circuitBreaker("card-service");
+    return withTransitionMetrics(circuitBreakerRegistry.circuitBreaker("card-service"));
   }
 
   @Bean
   public CircuitBreaker accountServiceCircuitBreaker() {
-    return circuitBreakerRegistry.circuitBreaker("account-service");
+    return withTransitionMetrics(circuitBreakerRegistry.circuitBreaker("account-service"));
   }
 
   @Bean
@@ -44,4 +80,61 @@ public class Resilience4jConfig {
   public TimeLimiter accountServiceTimeLimiter() {
     return timeLimiterRegistry.timeLimiter("account-service");
   }
+
+  /**
+   * Un bulkhead por servicio, del tamaño de su pool de conexiones; si resilience4j.bulkhead.instances
+   * define la instancia, esa configuración tiene prioridad
+   */
+  @Bean
+  public Bulkhead customerServiceBulkhead(
+    @Value("${services.customer.bulkhead.max-concurrent-calls:${services.customer.pool.max-connections:50}}") int maxConcurrentCalls,
+    @Value("${services.customer.bulkhead.max-wait:0ms}") Duration maxWait) {
+    return bulkhead("customer-service", maxConcurrentCalls, maxWait);
+  }
+
+  @Bean
+  public Bulkhead cardServiceBulkhead(
+    @Value("${services.card.bulkhead.max-concurrent-calls:${services.card.pool.max-connections:50}}") int maxConcurrentCalls,
+    @Value("${services.card.bulkhead.max-wait:0ms}") Duration maxWait) {
+    return bulkhead("card-service", maxConcurrentCalls, maxWait);
+  }
+
+  private Bulkhead bulkhead(String name, int maxConcurrentCalls, Duration maxWait) {
+    return bulkheadRegistry.bulkhead(name, BulkheadConfig.custom()
+      .maxConcurrentCalls(maxConcurrentCalls)
+      .maxWaitDuration(maxWait)
+      .build());
+  }
+
+  /**
+   * Ventana de latencias y presupuesto de hedges propios de cada servicio
+   */
+  @Bean
+  public HedgingPolicy customerServiceHedgingPolicy() {
+    return hedgingPolicy();
+  }
+
+  @Bean
+  public HedgingPolicy cardServiceHedgingPolicy() {
+    return hedgingPolicy();
+  }
+
+  private HedgingPolicy hedgingPolicy() {
+    return new HedgingPolicy(hedgingEnabled, hedgingPercentile, hedgingWindowSize, hedgingMinSamples,
+      hedgingMinDelay, hedgingMaxDelay, hedgingBudgetRatio, hedgingBudgetMaxTokens);
+  }
+
+  /**
+   * Cuenta las transiciones de estado; el estado actual ya lo publica resilience4j como gauge
+   */
+  private CircuitBreaker withTransitionMetrics(CircuitBreaker circuitBreaker) {
+    circuitBreaker.getEventPublisher().onStateTransition(event -> Counter.builder("credit.downstream.circuit.transitions")
+      .description("Circuit breaker state transitions")
+      .tag("name", event.getCircuitBreakerName())
+      .tag("from", event.getStateTransition().getFromState().name())
+      .tag("to", event.getStateTransition().getToState().name())
+      .register(meterRegistry)
+      .increment());
+    return circuitBreaker;
+  }
 }
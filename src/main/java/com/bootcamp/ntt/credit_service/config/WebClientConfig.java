@@ -1,11 +1,29 @@
 package com.bootcamp.ntt.credit_service.config;
 
+import com.bootcamp.ntt.credit_service.utils.HedgeRouting;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
 
+import java.time.Duration;
+
+/**
+ * Un pool de conexiones por servicio externo: un card-service lento no puede agotar
+ * las conexiones que necesitan las consultas a customer-service.
+ * Los pools publican sus métricas (reactor.netty.connection.provider.*, tag name) para dimensionarlos por separado.
+ * El balanceo usa HedgeAwareLoadBalancer para que un hedge no vaya a la misma instancia que su primaria.
+ */
 @Configuration
+@LoadBalancerClients(defaultConfiguration = HedgeAwareLoadBalancerConfiguration.class)
 public class WebClientConfig {
 
   private static final int MEMORY_SIZE_KB = 1024;
@@ -15,11 +33,81 @@ public class WebClientConfig {
   @LoadBalanced
   public WebClient.Builder webClientBuilder() {
     return WebClient.builder()
-      .codecs(configurer -> configurer.defaultCodecs().maxInMemorySize(MAX_MEMORY_SIZE));
+      .codecs(configurer -> configurer.defaultCodecs().maxInMemorySize(MAX_MEMORY_SIZE))
+      .filter(hedgeRoutingAttribute());
+  }
+
+  /**
+   * Copia la pista de hedging del contexto de Reactor a los atributos de la petición, donde la lee
+   * el load balancer. Se registra antes que el filtro de @LoadBalanced, que se agrega al final.
+   */
+  static ExchangeFilterFunction hedgeRoutingAttribute() {
+    return (request, next) -> Mono.deferContextual(context -> next.exchange(
+      context.<HedgeRouting>getOrEmpty(HedgeRouting.KEY)
+        .map(routing -> ClientRequest.from(request).attribute(HedgeRouting.KEY, routing).build())
+        .orElse(request)));
+  }
+
+  @Bean(destroyMethod = "dispose")
+  public ConnectionProvider customerServiceConnectionProvider(
+    @Value("${services.customer.pool.max-connections:50}") int maxConnections,
+    @Value("${services.customer.pool.pending-acquire-max-count:100}") int pendingAcquireMaxCount,
+    @Value("${services.customer.pool.pending-acquire-timeout:2s}") Duration pendingAcquireTimeout,
+    @Value("${services.customer.pool.max-idle-time:30s}") Duration maxIdleTime,
+    @Value("${services.customer.pool.max-life-time:5m}") Duration maxLifeTime) {
+
+    return connectionProvider("customer-service", maxConnections, pendingAcquireMaxCount,
+      pendingAcquireTimeout, maxIdleTime, maxLifeTime);
+  }
+
+  @Bean(destroyMethod = "dispose")
+  public ConnectionProvider cardServiceConnectionProvider(
+    @Value("${services.card.pool.max-connections:50}") int maxConnections,
+    @Value("${services.card.pool.pending-acquire-max-count:100}") int pendingAcquireMaxCount,
+    @Value("${services.card.pool.pending-acquire-timeout:2s}") Duration pendingAcquireTimeout,
+    @Value("${services.card.pool.max-idle-time:30s}") Duration maxIdleTime,
+    @Value("${services.card.pool.max-life-time:5m}") Duration maxLifeTime) {
+
+    return connectionProvider("card-service", maxConnections, pendingAcquireMaxCount,
+      pendingAcquireTimeout, maxIdleTime, maxLifeTime);
+  }
+
+  @Bean
+  public WebClient customerServiceWebClient(WebClient.Builder webClientBuilder,
+                                            ConnectionProvider customerServiceConnectionProvider) {
+    return webClient(webClientBuilder, customerServiceConnectionProvider);
   }
 
   @Bean
-  public WebClient webClient(WebClient.Builder builder) {
-    return builder.build();
+  public WebClient cardServiceWebClient(WebClient.Builder webClientBuilder,
+                                        ConnectionProvider cardServiceConnectionProvider) {
+    return webClient(webClientBuilder, cardServiceConnectionProvider);
+  }
+
+  /**
+   * Clona el builder balanceado (conserva el filtro de load balancer) y le asigna su propio pool
+   */
+  private static WebClient webClient(WebClient.Builder builder, ConnectionProvider connectionProvider) {
+    return builder.clone()
+      .clientConnector(new ReactorClientHttpConnector(HttpClient.create(connectionProvider)))
+      .build();
+  }
+
+  /**
+   * Pool acotado: al superar pendingAcquireMaxCount o pendingAcquireTimeout la llamada falla de inmediato
+   * en lugar de encolarse sin límite; las conexiones ociosas se cierran en segundo plano.
+   */
+  private static ConnectionProvider connectionProvider(String name, int maxConnections, int pendingAcquireMaxCount,
+                                                       Duration pendingAcquireTimeout, Duration maxIdleTime,
+                                                       Duration maxLifeTime) {
+    return ConnectionProvider.builder(name)
+      .maxConnections(maxConnections)
+      .pendingAcquireMaxCount(pendingAcquireMaxCount)
+      .pendingAcquireTimeout(pendingAcquireTimeout)
+      .maxIdleTime(maxIdleTime)
+      .maxLifeTime(maxLifeTime)
+      .evictInBackground(maxIdleTime)
+      .metrics(true)
+      .build();
   }
 }
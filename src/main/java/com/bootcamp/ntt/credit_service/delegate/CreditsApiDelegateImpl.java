@@ -1,15 +1,18 @@
 package com.bootcamp.ntt.credit_service.delegate;
 
 import com.bootcamp.ntt.credit_service.api.CreditsApiDelegate;
+import com.bootcamp.ntt.credit_service.dto.CreditBalanceSnapshot;
 import com.bootcamp.ntt.credit_service.exception.AccessDeniedException;
 import com.bootcamp.ntt.credit_service.mapper.CreditMapper;
 import com.bootcamp.ntt.credit_service.model.*;
 
 import com.bootcamp.ntt.credit_service.service.CreditService;
+import com.bootcamp.ntt.credit_service.service.IdempotencyService;
 import com.bootcamp.ntt.credit_service.utils.SecurityUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Flux;
@@ -23,9 +26,12 @@ import java.util.Optional;
 @RequiredArgsConstructor
 public class CreditsApiDelegateImpl implements CreditsApiDelegate {
 
+  private static final String PAYMENT_IDEMPOTENCY_SCOPE = "payment:";
+
   private final CreditService creditService;
   private final SecurityUtils securityUtils;
   private final CreditMapper creditMapper;
+  private final IdempotencyService idempotencyService;
 
   /**
    * POST /credits : Create a new credit
@@ -90,6 +96,30 @@ public class CreditsApiDelegateImpl implements CreditsApiDelegate {
       });
   }
 
+  /**
+   * GET /credits/page : Get a page of credits (keyset on id)
+   * Non admin users only see their own credits
+   */
+  @Override
+  public Mono<ResponseEntity<CreditPage>> getCreditsPage(
+    String customerId,
+    Boolean isActive,
+    String cursor,
+    Integer limit,
+    ServerWebExchange exchange) {
+
+    log.info("Getting credits page - customerId: {}, isActive: {}, limit: {}", customerId, isActive, limit);
+
+    return securityUtils.extractAuthHeaders(exchange)
+      .flatMap(auth -> {
+        Boolean activeFilter = Optional.ofNullable(isActive).orElse(true);
+        String resolvedCustomerId = auth.isAdmin() ? customerId : auth.getCustomerId();
+
+        return creditService.getCreditsPage(activeFilter, resolvedCustomerId, cursor, limit);
+      })
+      .map(ResponseEntity::ok);
+  }
+
   /**
    * GET /credits/{id} : Get a credit by ID
    * Validates read access (admin or owner)
@@ -194,14 +224,16 @@ public class CreditsApiDelegateImpl implements CreditsApiDelegate {
   /**
    * POST /credits/{creditNumber}/process-payment : Process installment payment
    * Customer can pay their own credit, admin can pay any credit
+   * Retries with the same Idempotency-Key replay the stored response; a different amount is rejected
    */
   @Override
   public Mono<ResponseEntity<PaymentProcessResponse>> processCreditPayment(
     String creditNumber,
     Mono<PaymentProcessRequest> paymentProcessRequest,
+    String idempotencyKey,
     ServerWebExchange exchange) {
 
-    log.info("Processing installment payment for credit: {}", creditNumber);
+    log.info("Processing installment payment for credit: {} (Idempotency-Key: {})", creditNumber, idempotencyKey);
 
     return creditService.getCreditByNumber(creditNumber)
       .switchIfEmpty(Mono.error(new RuntimeException("Credit not found")))
@@ -210,7 +242,12 @@ public class CreditsApiDelegateImpl implements CreditsApiDelegate {
       .then(paymentProcessRequest)
       .doOnNext(request -> log.info("Payment request for credit {}: amount {} (expected monthly: {})",
         creditNumber, request.getAmount(), "calculating..."))
-      .flatMap(request -> creditService.processPayment(creditNumber, request))
+      .flatMap(request -> idempotencyService.execute(
+        PAYMENT_IDEMPOTENCY_SCOPE + creditNumber,
+        idempotencyKey,
+        paymentFingerprint(request),
+        PaymentProcessResponse.class,
+        () -> creditService.processPayment(creditNumber, request)))
       .map(response -> {
         if (response.getSuccess()) {
           log.info("Installment payment processed successfully for credit {}: paid {} - Remaining installments: {}",
@@ -222,6 +259,23 @@ public class CreditsApiDelegateImpl implements CreditsApiDelegate {
       });
   }
 
+  /**
+   * POST /credits/payments/batch : Process a batch of installment payments
+   * Admin only operation, results are streamed back as NDJSON
+   */
+  @Override
+  public Mono<ResponseEntity<Flux<BatchPaymentResult>>> processPaymentBatch(
+    Flux<BatchPaymentItem> batchPaymentItem,
+    ServerWebExchange exchange) {
+
+    log.info("Processing payment batch");
+
+    return securityUtils.validateAdminOnly(exchange)
+      .then(Mono.fromCallable(() -> ResponseEntity.ok()
+        .contentType(MediaType.APPLICATION_NDJSON)
+        .body(creditService.processPaymentBatch(batchPaymentItem))));
+  }
+
   /**
    * GET /credits/{creditNumber}/balance : Get credit balance and payment info
    * Customer can view their own credit, admin can view any credit
@@ -233,10 +287,11 @@ public class CreditsApiDelegateImpl implements CreditsApiDelegate {
 
     log.info("Getting balance for credit: {}", creditNumber);
 
-    return creditService.getCreditByNumber(creditNumber)
-      .switchIfEmpty(Mono.error(new RuntimeException("Credit not found")))
-      .flatMap(credit -> securityUtils.validateReadAccess(credit.getCustomerId(), exchange)
-        .then(creditService.getCreditBalance(creditNumber)))
+    return securityUtils.validateReadAccess(
+        creditService.getCreditBalanceSnapshot(creditNumber),
+        CreditBalanceSnapshot::getCustomerId,
+        exchange)
+      .map(CreditBalanceSnapshot::getBalance)
       .map(response -> {
         log.info("Balance retrieved for credit {}%",creditNumber);
         return ResponseEntity.ok(response);
@@ -280,4 +335,11 @@ public class CreditsApiDelegateImpl implements CreditsApiDelegate {
       .flatMap(credit -> securityUtils.validateReadAccess(credit.getCustomerId(), exchange)
         .thenReturn(credit));
   }
+
+  /**
+   * The amount is the only request field that changes the payment outcome
+   */
+  private static String paymentFingerprint(PaymentProcessRequest request) {
+    return "amount=" + request.getAmount();
+  }
 }
@@ -0,0 +1,17 @@
+package com.bootcamp.ntt.credit_service.dto;
+
+import com.bootcamp.ntt.credit_service.model.CreditBalanceResponse;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Balance cacheado junto con el dueño del crédito, para validar acceso sin otra lectura
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CreditBalanceSnapshot {
+  private String customerId;
+  private CreditBalanceResponse balance;
+}
@@ -0,0 +1,27 @@
+package com.bootcamp.ntt.credit_service.dto;
+
+import com.bootcamp.ntt.credit_service.entity.CreditEventType;
+import com.bootcamp.ntt.credit_service.model.CreditResponse;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Mensaje publicado en Kafka: el tipo de evento y el estado del crédito tras el cambio.
+ * creditVersion es la versión del crédito que dejó el cambio y crece con cada cambio del mismo crédito;
+ * el orden de llegada solo se garantiza dentro de un topic, así que quien lea varios topics descarta
+ * los eventos con una versión menor o igual a la última que aplicó. CREDIT_DELETED lleva la versión
+ * siguiente a la última guardada.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CreditEvent {
+  private String eventId;
+  private CreditEventType eventType;
+  private Instant occurredAt;
+  private long creditVersion;
+  private CreditResponse credit;
+}
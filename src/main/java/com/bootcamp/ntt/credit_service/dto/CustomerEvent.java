@@ -0,0 +1,25 @@
+package com.bootcamp.ntt.credit_service.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Evento de customer-service. Solo se leen los campos que necesita la réplica del tipo de cliente.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class CustomerEvent {
+
+  public static final String CUSTOMER_DELETED = "CUSTOMER_DELETED";
+
+  private String eventType; // CUSTOMER_CREATED, CUSTOMER_UPDATED o CUSTOMER_DELETED
+  private String customerId;
+  private String customerType;
+  private Instant occurredAt;
+}
@@ -0,0 +1,21 @@
+package com.bootcamp.ntt.credit_service.dto;
+
+import com.bootcamp.ntt.credit_service.entity.Money;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Proyección de un crédito vencido: solo los campos que necesita la evaluación de elegibilidad
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OverdueCreditView {
+  private String id;
+  private String creditNumber;
+  private LocalDate nextPaymentDueDate;
+  private Money monthlyPayment;
+}
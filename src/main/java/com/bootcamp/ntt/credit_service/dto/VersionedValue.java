@@ -0,0 +1,12 @@
+package com.bootcamp.ntt.credit_service.dto;
+
+import lombok.Value;
+
+/**
+ * Valor a cachear junto con la versión del documento del que se obtuvo
+ */
+@Value(staticConstructor = "of")
+public class VersionedValue<T> {
+  T value;
+  long version;
+}
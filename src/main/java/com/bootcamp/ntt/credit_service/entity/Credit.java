@@ -3,8 +3,10 @@ package com.bootcamp.ntt.credit_service.entity;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.index.Indexed;
 
 import lombok.AllArgsConstructor;
@@ -13,8 +15,6 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import javax.validation.constraints.*;
-import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
@@ -24,6 +24,11 @@ import java.time.temporal.ChronoUnit;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "credits")
+@CompoundIndex(name = "active_id_idx", def = "{'isActive': 1, '_id': 1}")
+@CompoundIndex(name = "customer_active_id_idx", def = "{'customerId': 1, 'isActive': 1, '_id': 1}")
+@CompoundIndex(name = "customer_active_status_idx", def = "{'customerId': 1, 'isActive': 1, 'status': 1}")
+@CompoundIndex(name = "overdue_scan_idx", def = "{'isActive': 1, 'isOverdue': 1, 'nextPaymentDueDate': 1}")
+@CompoundIndex(name = "customer_overdue_idx", def = "{'customerId': 1, 'isActive': 1, 'nextPaymentDueDate': 1}")
 public class Credit {
 
   @Id
@@ -48,19 +53,19 @@ public class Credit {
   @DecimalMax(value = "100000.00", message = "El monto máximo del préstamo es $100000")
   @Digits(integer = 12, fraction = 2, message = "El monto debe tener máximo 12 enteros y 2 decimales")
   @Field("originalAmount")
-  private BigDecimal originalAmount;
+  private Money originalAmount;
 
   @NotNull(message = "El balance actual es obligatorio")
   @DecimalMin(value = "0.00", message = "El balance actual no puede ser negativo")
   @Digits(integer = 12, fraction = 2, message = "El balance debe tener máximo 12 enteros y 2 decimales")
   @Field("currentBalance")
-  private BigDecimal currentBalance;
+  private Money currentBalance;
 
   @NotNull(message = "El pago mensual es obligatorio")
   @DecimalMin(value = "0.01", message = "El pago mensual debe ser mayor a 0")
   @Digits(integer = 10, fraction = 2, message = "El pago mensual debe tener máximo 10 enteros y 2 decimales")
   @Field("monthlyPayment")
-  private BigDecimal monthlyPayment;
+  private Money monthlyPayment;
 
   @NotNull(message = "El total de cuotas es obligatorio")
   @Min(value = 12, message = "El total de cuotas debe ser 12")
@@ -106,6 +111,13 @@ public class Credit {
   @Field("updatedAt")
   private Instant updatedAt;
 
+  @Version
+  @Field("version")
+  private Long version;
+
+  @Field("lastPaymentBatchId")
+  private String lastPaymentBatchId;
+
 
   /**
    * Calcula la cuota mensual basada en el monto original
@@ -113,11 +125,7 @@ public class Credit {
    */
   public void calculateMonthlyPayment() {
     if (originalAmount != null && totalInstallments != null) {
-      this.monthlyPayment = originalAmount.divide(
-        new BigDecimal(totalInstallments),
-        2,
-        RoundingMode.HALF_UP
-      );
+      this.monthlyPayment = originalAmount.divide(totalInstallments);
     }
   }
 
@@ -142,17 +150,28 @@ public class Credit {
     }
   }
 
+  /**
+   * Días de atraso a la fecha actual.
+   * El proceso de morosidad persiste isOverdue/status; los días se derivan del vencimiento sin recalcular el estado.
+   */
+  public Integer getOverdueDays() {
+    if (Boolean.TRUE.equals(isOverdue) && nextPaymentDueDate != null) {
+      return (int) Math.max(0, nextPaymentDueDate.until(LocalDate.now(), ChronoUnit.DAYS));
+    }
+    return overdueDays;
+  }
+
   /**
    * Procesa un pago de cuota
    * @param paymentAmount Monto del pago
    * @return true si el pago fue exitoso
    */
-  public boolean processPayment(BigDecimal paymentAmount) {
-    if (paymentAmount.compareTo(monthlyPayment) < 0) {
+  public boolean processPayment(Money paymentAmount) {
+    if (paymentAmount.isLessThan(monthlyPayment)) {
       return false;
     }
 
-    this.currentBalance = this.currentBalance.subtract(monthlyPayment);
+    this.currentBalance = this.currentBalance.minus(monthlyPayment);
 
     this.paidInstallments++;
 
@@ -168,16 +187,15 @@ public class Credit {
   }
 
   /**
-   * Calcula el porcentaje de progreso del préstamo
+   * Calcula el porcentaje de progreso del préstamo, con 2 decimales (HALF_UP)
    */
-  public BigDecimal getPaymentProgress() {
+  public double getPaymentProgress() {
     if (totalInstallments == null || paidInstallments == null) {
-      return BigDecimal.ZERO;
+      return 0;
     }
 
-    return new BigDecimal(paidInstallments)
-      .multiply(new BigDecimal("100"))
-      .divide(new BigDecimal(totalInstallments), 2, RoundingMode.HALF_UP);
+    // en centésimas de punto porcentual para redondear en enteros
+    return Money.divideHalfUp(paidInstallments * 10_000L, totalInstallments) / 100.0;
   }
 
   /**
@@ -0,0 +1,26 @@
+package com.bootcamp.ntt.credit_service.entity;
+
+/**
+ * Eventos del ciclo de vida del crédito publicados por el outbox.
+ * El topic agrupa los eventos que los consumidores leen juntos. Kafka ordena por crédito solo dentro
+ * de un topic: entre lifecycle y payments el orden lo da CreditEvent.creditVersion.
+ */
+public enum CreditEventType {
+    CREDIT_CREATED("lifecycle"),
+    CREDIT_UPDATED("lifecycle"),
+    CREDIT_ACTIVATED("lifecycle"),
+    CREDIT_DEACTIVATED("lifecycle"),
+    CREDIT_DELETED("lifecycle"),
+    CREDIT_OVERDUE("lifecycle"),
+    PAYMENT_PROCESSED("payments");
+
+    private final String topic;
+
+    CreditEventType(String topic) {
+        this.topic = topic;
+    }
+
+    public String getTopic() {
+        return topic;
+    }
+}
@@ -0,0 +1,24 @@
+package com.bootcamp.ntt.credit_service.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+/**
+ * Contador atómico usado para reservar bloques de números de crédito
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "credit_sequences")
+public class CreditSequence {
+
+  @Id
+  private String id;
+
+  @Field("value")
+  private long value;
+}
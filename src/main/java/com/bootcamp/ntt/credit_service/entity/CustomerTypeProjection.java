@@ -0,0 +1,42 @@
+package com.bootcamp.ntt.credit_service.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import java.time.Instant;
+
+/**
+ * Réplica local del tipo de cliente, alimentada por los eventos de customer-service.
+ * El id es el customerId. Un cliente eliminado queda como tombstone (deleted = true) hasta expireAt,
+ * para que un evento atrasado no lo vuelva a crear.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "customer_types")
+public class CustomerTypeProjection {
+
+  @Id
+  private String id;
+
+  @Field("customerType")
+  private String customerType;
+
+  // momento del evento que produjo este valor, para descartar eventos atrasados;
+  // Instant.EPOCH si vino de la consulta HTTP, así cualquier evento real lo reemplaza
+  @Field("updatedAt")
+  private Instant updatedAt;
+
+  @Field("deleted")
+  private Boolean deleted;
+
+  // solo en tombstones: Mongo los borra al llegar a esta fecha
+  @Field("expireAt")
+  @Indexed(name = "tombstone_expiry_idx", expireAfterSeconds = 0)
+  private Instant expireAt;
+}
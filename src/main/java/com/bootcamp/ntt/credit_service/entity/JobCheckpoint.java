@@ -0,0 +1,30 @@
+package com.bootcamp.ntt.credit_service.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Punto de avance de los procesos en segundo plano, para reanudar tras un reinicio
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "job_checkpoints")
+public class JobCheckpoint {
+
+  @Id
+  private String id;
+
+  @Field("lastProcessedDate")
+  private LocalDate lastProcessedDate;
+
+  @Field("updatedAt")
+  private Instant updatedAt;
+}
@@ -0,0 +1,33 @@
+package com.bootcamp.ntt.credit_service.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import java.time.Instant;
+
+/**
+ * Lease de un proceso en segundo plano: solo la réplica dueña lo ejecuta hasta lockedUntil.
+ * El id es el nombre del proceso.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "job_leases")
+public class JobLease {
+
+  @Id
+  private String id;
+
+  @Field("owner")
+  private String owner;
+
+  @Field("lockedUntil")
+  private Instant lockedUntil;
+
+  @Field("lockedAt")
+  private Instant lockedAt;
+}
@@ -0,0 +1,165 @@
+package com.bootcamp.ntt.credit_service.entity;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Monto en centavos (2 decimales) sobre un long.
+ * Salvo que se indique otro modo se redondea con HALF_UP, igual que el cálculo de cuotas con BigDecimal;
+ * las sumas/restas son exactas y un desborde lanza ArithmeticException en lugar de dar un monto inválido.
+ * Extiende Number para que las anotaciones de validación (@DecimalMin, @Digits) sigan aplicando.
+ */
+public final class Money extends Number implements Comparable<Money> {
+
+  private static final long serialVersionUID = 1L;
+
+  public static final int SCALE = 2;
+  private static final long MINOR_PER_UNIT = 100;
+  // hasta aquí la distancia entre doubles es mucho menor a un centavo
+  private static final double MAX_FAST_PATH_AMOUNT = 1e12;
+
+  public static final Money ZERO = new Money(0);
+
+  private final long minorUnits;
+
+  private Money(long minorUnits) {
+    this.minorUnits = minorUnits;
+  }
+
+  public static Money ofMinor(long minorUnits) {
+    return minorUnits == 0 ? ZERO : new Money(minorUnits);
+  }
+
+  /**
+   * Redondea a 2 decimales con HALF_UP
+   */
+  @JsonCreator
+  public static Money of(BigDecimal amount) {
+    return ofMinor(amount.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact());
+  }
+
+  /**
+   * Interpreta el double por su representación decimal (como BigDecimal.valueOf) y redondea con HALF_UP
+   */
+  public static Money of(double amount) {
+    return of(amount, RoundingMode.HALF_UP);
+  }
+
+  /**
+   * Los montos que ya tienen 2 decimales o menos se convierten sin crear un BigDecimal:
+   * si centavos / 100 vuelve exactamente al mismo double, esa es su representación decimal.
+   */
+  public static Money of(double amount, RoundingMode roundingMode) {
+    if (Math.abs(amount) < MAX_FAST_PATH_AMOUNT) {
+      long rounded = Math.round(amount * MINOR_PER_UNIT);
+      if (rounded / (double) MINOR_PER_UNIT == amount) {
+        return ofMinor(rounded);
+      }
+    }
+    return ofMinor(BigDecimal.valueOf(amount).setScale(SCALE, roundingMode).unscaledValue().longValueExact());
+  }
+
+  /**
+   * Lee montos guardados como texto ("1250.00") por versiones anteriores
+   */
+  public static Money parse(String amount) {
+    return of(new BigDecimal(amount.trim()));
+  }
+
+  public long getMinorUnits() {
+    return minorUnits;
+  }
+
+  public Money plus(Money other) {
+    return ofMinor(Math.addExact(minorUnits, other.minorUnits));
+  }
+
+  public Money minus(Money other) {
+    return ofMinor(Math.subtractExact(minorUnits, other.minorUnits));
+  }
+
+  public Money times(long factor) {
+    return ofMinor(Math.multiplyExact(minorUnits, factor));
+  }
+
+  /**
+   * Divide en partes iguales redondeando al centavo con HALF_UP
+   */
+  public Money divide(long divisor) {
+    return ofMinor(divideHalfUp(minorUnits, divisor));
+  }
+
+  public int signum() {
+    return Long.signum(minorUnits);
+  }
+
+  public boolean isLessThan(Money other) {
+    return minorUnits < other.minorUnits;
+  }
+
+  @JsonValue
+  public BigDecimal toBigDecimal() {
+    return BigDecimal.valueOf(minorUnits, SCALE);
+  }
+
+  @Override
+  public double doubleValue() {
+    // la división de IEEE redondea correctamente: mismo resultado que BigDecimal.doubleValue()
+    return minorUnits / (double) MINOR_PER_UNIT;
+  }
+
+  @Override
+  public float floatValue() {
+    return (float) doubleValue();
+  }
+
+  @Override
+  public long longValue() {
+    return minorUnits / MINOR_PER_UNIT;
+  }
+
+  @Override
+  public int intValue() {
+    return (int) longValue();
+  }
+
+  @Override
+  public int compareTo(Money other) {
+    return Long.compare(minorUnits, other.minorUnits);
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    return this == other || (other instanceof Money && ((Money) other).minorUnits == minorUnits);
+  }
+
+  @Override
+  public int hashCode() {
+    return Long.hashCode(minorUnits);
+  }
+
+  /**
+   * Formato plano con 2 decimales ("1250.00"), igual que BigDecimal.toPlainString()
+   */
+  @Override
+  public String toString() {
+    long units = Math.abs(minorUnits / MINOR_PER_UNIT);
+    long cents = Math.abs(minorUnits % MINOR_PER_UNIT);
+    return (minorUnits < 0 ? "-" : "") + units + (cents < 10 ? ".0" : ".") + cents;
+  }
+
+  /**
+   * División entera con redondeo HALF_UP (los empates se alejan de cero)
+   */
+  static long divideHalfUp(long dividend, long divisor) {
+    long quotient = dividend / divisor;
+    long remainder = dividend % divisor;
+    if (remainder != 0 && Math.abs(remainder) >= Math.abs(divisor) - Math.abs(remainder)) {
+      quotient += Long.signum(dividend) * Long.signum(divisor);
+    }
+    return quotient;
+  }
+}
@@ -0,0 +1,46 @@
+package com.bootcamp.ntt.credit_service.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import java.time.Instant;
+
+/**
+ * Evento pendiente de publicar, escrito en la misma transacción que el cambio del crédito.
+ * El relay lo borra una vez que Kafka confirma el envío.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "credit_outbox")
+public class OutboxEvent {
+
+  @Id
+  private String id;
+
+  @Field("eventType")
+  private CreditEventType eventType;
+
+  @Field("creditId")
+  private String creditId;
+
+  @Field("creditNumber")
+  private String creditNumber;
+
+  // versión del crédito tras el cambio, la misma que lleva el payload
+  @Field("creditVersion")
+  private Long creditVersion;
+
+  // CreditEvent serializado al momento del cambio
+  @Field("payload")
+  private String payload;
+
+  @Field("createdAt")
+  private Instant createdAt;
+}
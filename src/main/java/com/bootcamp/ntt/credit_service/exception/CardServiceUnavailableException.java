@@ -0,0 +1,7 @@
+package com.bootcamp.ntt.credit_service.exception;
+
+public class CardServiceUnavailableException extends RuntimeException {
+  public CardServiceUnavailableException(String message) {
+    super(message);
+  }
+}
@@ -2,6 +2,7 @@ package com.bootcamp.ntt.credit_service.exception;
 
 import com.bootcamp.ntt.credit_service.model.ErrorResponse;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -55,6 +56,30 @@ public class GlobalExceptionHandler {
     return Mono.just(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(errorResponse));
   }
 
+  @ExceptionHandler(CustomerServiceUnavailableException.class)
+  public Mono<ResponseEntity<ErrorResponse>> handleCustomerServiceUnavailableException(CustomerServiceUnavailableException ex) {
+    log.warn("Customer service unavailable: {}", ex.getMessage());
+
+    ErrorResponse errorResponse = new ErrorResponse();
+    errorResponse.setCode("CUSTOMER_SERVICE_UNAVAILABLE");
+    errorResponse.setMessage(ex.getMessage());
+    errorResponse.setTimestamp(OffsetDateTime.now());
+
+    return Mono.just(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(errorResponse));
+  }
+
+  @ExceptionHandler(CardServiceUnavailableException.class)
+  public Mono<ResponseEntity<ErrorResponse>> handleCardServiceUnavailableException(CardServiceUnavailableException ex) {
+    log.warn("Card service unavailable: {}", ex.getMessage());
+
+    ErrorResponse errorResponse = new ErrorResponse();
+    errorResponse.setCode("CARD_SERVICE_UNAVAILABLE");
+    errorResponse.setMessage(ex.getMessage());
+    errorResponse.setTimestamp(OffsetDateTime.now());
+
+    return Mono.just(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(errorResponse));
+  }
+
   @ExceptionHandler(WebClientResponseException.class)
   public Mono<ResponseEntity<ErrorResponse>> handleWebClientResponseException(WebClientResponseException ex) {
     log.error("WebClient error - Status: {}, Body: {}", ex.getStatusCode(), ex.getResponseBodyAsString());
@@ -105,6 +130,18 @@ public class GlobalExceptionHandler {
     return Mono.just(ResponseEntity.status(HttpStatus.FORBIDDEN).body(errorResponse));
   }
 
+  @ExceptionHandler(OptimisticLockingFailureException.class)
+  public Mono<ResponseEntity<ErrorResponse>> handleOptimisticLockingFailureException(OptimisticLockingFailureException ex) {
+    log.warn("Concurrent modification: {}", ex.getMessage());
+
+    ErrorResponse errorResponse = new ErrorResponse();
+    errorResponse.setCode("CONCURRENT_MODIFICATION");
+    errorResponse.setMessage("The credit was modified concurrently. Please try again.");
+    errorResponse.setTimestamp(OffsetDateTime.now());
+
+    return Mono.just(ResponseEntity.status(HttpStatus.CONFLICT).body(errorResponse));
+  }
+
   @ExceptionHandler(RuntimeException.class)
   public Mono<ResponseEntity<ErrorResponse>> handleRuntimeException(RuntimeException ex) {
     log.error("Runtime exception: {}", ex.getMessage(), ex);
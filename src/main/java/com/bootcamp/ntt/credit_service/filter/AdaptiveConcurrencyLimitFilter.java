@@ -0,0 +1,144 @@
+package com.bootcamp.ntt.credit_service.filter;
+
+import com.bootcamp.ntt.credit_service.model.ErrorResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Limita la concurrencia de la API por clase de operación con un límite adaptativo (AIMD).
+ * Lo que excede el límite se rechaza de inmediato con 503 y Retry-After en lugar de encolarse
+ * en el event loop y el pool de Mongo; cada clase tiene su propio límite para que un pico
+ * de listados no deje sin capacidad a los pagos ni a la elegibilidad.
+ * Corre dentro de MetricsWebFilter (HIGHEST_PRECEDENCE + 1) para que los 503 por carga
+ * queden en http.server.requests junto con el resto de las respuestas.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+public class AdaptiveConcurrencyLimitFilter implements WebFilter {
+
+  private static final String PROPERTY_PREFIX = "credit.concurrency-limit.";
+
+  private final String basePath;
+  private final boolean enabled;
+  private final String retryAfterSeconds;
+  private final ObjectMapper objectMapper;
+  private final Map<OperationClass, AimdConcurrencyLimiter> limiters = new EnumMap<>(OperationClass.class);
+  private final Map<OperationClass, Counter> shedCounters = new EnumMap<>(OperationClass.class);
+
+  public AdaptiveConcurrencyLimitFilter(
+    Environment environment,
+    MeterRegistry meterRegistry,
+    ObjectMapper objectMapper,
+    @Value("${openapi.creditService.base-path:/api/v1}") String basePath,
+    @Value("${credit.concurrency-limit.enabled:true}") boolean enabled,
+    @Value("${credit.concurrency-limit.backoff-ratio:0.9}") double backoffRatio,
+    @Value("${credit.concurrency-limit.retry-after:1s}") Duration retryAfter) {
+
+    this.basePath = basePath;
+    this.enabled = enabled;
+    this.retryAfterSeconds = String.valueOf(Math.max(1, retryAfter.getSeconds()));
+    this.objectMapper = objectMapper;
+
+    for (OperationClass operation : OperationClass.values()) {
+      String prefix = PROPERTY_PREFIX + operation.getKey() + ".";
+      Duration latencyThreshold =
+        environment.getProperty(prefix + "latency-threshold", Duration.class, operation.getLatencyThreshold());
+      AimdConcurrencyLimiter limiter = new AimdConcurrencyLimiter(
+        environment.getProperty(prefix + "initial-limit", Integer.class, operation.getInitialLimit()),
+        environment.getProperty(prefix + "min-limit", Integer.class, operation.getMinLimit()),
+        environment.getProperty(prefix + "max-limit", Integer.class, operation.getMaxLimit()),
+        latencyThreshold == null ? Long.MAX_VALUE : latencyThreshold.toNanos(),
+        backoffRatio);
+      limiters.put(operation, limiter);
+
+      Gauge.builder("credit.concurrency.limit", limiter, AimdConcurrencyLimiter::getLimit)
+        .description("Current adaptive concurrency limit")
+        .tag("operation", operation.getKey())
+        .register(meterRegistry);
+      Gauge.builder("credit.concurrency.inflight", limiter, AimdConcurrencyLimiter::getInFlight)
+        .description("Requests currently in flight")
+        .tag("operation", operation.getKey())
+        .register(meterRegistry);
+      shedCounters.put(operation, Counter.builder("credit.concurrency.shed")
+        .description("Requests rejected with 503 because the concurrency limit was reached")
+        .tag("operation", operation.getKey())
+        .register(meterRegistry));
+    }
+  }
+
+  @Override
+  public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+    String path = exchange.getRequest().getPath().pathWithinApplication().value();
+    if (!enabled || !path.startsWith(basePath)) {
+      return chain.filter(exchange);
+    }
+
+    OperationClass operation = OperationClass.of(exchange.getRequest().getMethod(), path.substring(basePath.length()));
+    AimdConcurrencyLimiter limiter = limiters.get(operation);
+    if (!limiter.tryAcquire()) {
+      shedCounters.get(operation).increment();
+      log.debug("Shedding {} request {} - limit {} reached", operation.getKey(), path, limiter.getLimit());
+      return reject(exchange.getResponse());
+    }
+
+    return Mono.defer(() -> {
+      long start = System.nanoTime();
+      return chain.filter(exchange)
+        .doFinally(signal -> release(limiter, signal, System.nanoTime() - start));
+    });
+  }
+
+  /**
+   * Un error sin manejar cuenta como congestión; una cancelación solo libera el lugar
+   */
+  private static void release(AimdConcurrencyLimiter limiter, SignalType signal, long latencyNanos) {
+    if (signal == SignalType.ON_COMPLETE) {
+      limiter.onSuccess(latencyNanos);
+    } else if (signal == SignalType.ON_ERROR) {
+      limiter.onDropped();
+    } else {
+      limiter.onIgnore();
+    }
+  }
+
+  private Mono<Void> reject(ServerHttpResponse response) {
+    ErrorResponse errorResponse = new ErrorResponse();
+    errorResponse.setCode("SERVICE_OVERLOADED");
+    errorResponse.setMessage("Service is temporarily overloaded. Please retry later.");
+    errorResponse.setTimestamp(OffsetDateTime.now());
+
+    response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+    response.getHeaders().set(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+    response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+    try {
+      byte[] body = objectMapper.writeValueAsBytes(errorResponse);
+      return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+    } catch (JsonProcessingException e) {
+      return response.setComplete();
+    }
+  }
+}
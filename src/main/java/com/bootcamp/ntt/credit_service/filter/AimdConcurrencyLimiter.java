@@ -0,0 +1,81 @@
+package com.bootcamp.ntt.credit_service.filter;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Límite de concurrencia AIMD: sube de a uno mientras la latencia se mantiene bajo el umbral
+ * y el límite se está usando, y se multiplica por backoffRatio ante una respuesta lenta o fallida.
+ */
+final class AimdConcurrencyLimiter {
+
+  private final int minLimit;
+  private final int maxLimit;
+  private final long latencyThresholdNanos;
+  private final double backoffRatio;
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private volatile int limit;
+
+  AimdConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, long latencyThresholdNanos, double backoffRatio) {
+    if (minLimit < 1 || maxLimit < minLimit) {
+      throw new IllegalArgumentException("Invalid concurrency limits: min=" + minLimit + ", max=" + maxLimit);
+    }
+    this.minLimit = minLimit;
+    this.maxLimit = maxLimit;
+    this.latencyThresholdNanos = latencyThresholdNanos;
+    this.backoffRatio = backoffRatio;
+    this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+  }
+
+  /**
+   * Reserva un lugar; false si ya hay tantas peticiones en curso como el límite actual
+   */
+  boolean tryAcquire() {
+    while (true) {
+      int current = inFlight.get();
+      if (current >= limit) {
+        return false;
+      }
+      if (inFlight.compareAndSet(current, current + 1)) {
+        return true;
+      }
+    }
+  }
+
+  void onSuccess(long latencyNanos) {
+    int current = inFlight.getAndDecrement();
+    if (latencyNanos > latencyThresholdNanos) {
+      decrease();
+    } else if (current * 2 >= limit) {
+      // solo crece si la demanda llega al menos a la mitad del límite
+      increase();
+    }
+  }
+
+  void onDropped() {
+    inFlight.decrementAndGet();
+    decrease();
+  }
+
+  /**
+   * Libera sin ajustar el límite (petición cancelada por el cliente)
+   */
+  void onIgnore() {
+    inFlight.decrementAndGet();
+  }
+
+  int getLimit() {
+    return limit;
+  }
+
+  int getInFlight() {
+    return inFlight.get();
+  }
+
+  private synchronized void increase() {
+    limit = Math.min(maxLimit, limit + 1);
+  }
+
+  private synchronized void decrease() {
+    limit = Math.max(minLimit, (int) (limit * backoffRatio));
+  }
+}
@@ -0,0 +1,61 @@
+package com.bootcamp.ntt.credit_service.filter;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpMethod;
+
+import java.time.Duration;
+
+/**
+ * Clases de operación con límite de concurrencia independiente.
+ * Los valores son los defaults; se ajustan con credit.concurrency-limit.{key}.*
+ * Las operaciones de larga duración (carga de pagos, listado en streaming) no tienen umbral de latencia:
+ * su duración depende del volumen, no de la congestión, y solo reducen su límite ante errores.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum OperationClass {
+  PAYMENT("payment", 50, 10, 200, Duration.ofMillis(500)),
+  BATCH_PAYMENT("batch-payment", 4, 1, 16, null),
+  LIST("list", 20, 2, 100, Duration.ofSeconds(1)),
+  STREAM("stream", 10, 2, 50, null),
+  // cache L1/Redis y, en un miss, una query indexada (customer_overdue_idx); no llama a otros servicios
+  ELIGIBILITY("eligibility", 50, 10, 200, Duration.ofMillis(500)),
+  DEFAULT("default", 50, 10, 200, Duration.ofSeconds(1));
+
+  private static final String CREDITS = "/credits";
+
+  private final String key;
+  private final int initialLimit;
+  private final int minLimit;
+  private final int maxLimit;
+  // null: el límite no se ajusta por latencia
+  private final Duration latencyThreshold;
+
+  /**
+   * Clasifica por método y ruta relativa al base path de la API
+   */
+  public static OperationClass of(HttpMethod method, String path) {
+    if (HttpMethod.POST.equals(method)) {
+      if (path.endsWith("/process-payment")) {
+        return PAYMENT;
+      }
+      if (path.equals(CREDITS + "/payments/batch")) {
+        return BATCH_PAYMENT;
+      }
+    }
+    if (HttpMethod.GET.equals(method)) {
+      // GET /credits responde NDJSON en streaming
+      if (path.equals(CREDITS)) {
+        return STREAM;
+      }
+      if (path.equals(CREDITS + "/page")) {
+        return LIST;
+      }
+      if (path.startsWith(CREDITS + "/eligibility/")) {
+        return ELIGIBILITY;
+      }
+    }
+    return DEFAULT;
+  }
+}
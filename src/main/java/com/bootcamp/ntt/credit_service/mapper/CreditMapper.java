@@ -2,10 +2,10 @@ package com.bootcamp.ntt.credit_service.mapper;
 
 import com.bootcamp.ntt.credit_service.entity.Credit;
 import com.bootcamp.ntt.credit_service.entity.CreditType;
+import com.bootcamp.ntt.credit_service.entity.Money;
 import com.bootcamp.ntt.credit_service.model.*;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
@@ -16,6 +16,9 @@ import java.util.Optional;
 @Component
 public class CreditMapper {
 
+  private static final Money MIN_CREDIT_AMOUNT = Money.ofMinor(5_000_00);
+  private static final Money MAX_CREDIT_AMOUNT = Money.ofMinor(100_000_00);
+
   /**
    * Convierte CreditCreateRequest a entidad Credit
    * Nota: Solo mapea campos básicos, initializeNewCredit() se llama en el service
@@ -29,7 +32,7 @@ public class CreditMapper {
     credit.setCreditNumber(creditNumber);
     credit.setCustomerId(dto.getCustomerId());
     credit.setType(CreditType.valueOf(customerType));
-    credit.setOriginalAmount(BigDecimal.valueOf(dto.getOriginalAmount()));
+    credit.setOriginalAmount(Money.of(dto.getOriginalAmount()));
 
     log.debug("Mapped create request - customer: {}, type: {}, amount: {}",
       dto.getCustomerId(), customerType, dto.getOriginalAmount());
@@ -186,7 +189,7 @@ public class CreditMapper {
     response.setNextPaymentDueDate(credit.getNextPaymentDueDate());
     response.setPaidInstallments(credit.getPaidInstallments());
     response.setRemainingInstallments(credit.getRemainingInstallments());
-    response.setPaymentProgress(credit.getPaymentProgress().doubleValue());
+    response.setPaymentProgress(credit.getPaymentProgress());
     response.setIsOverdue(credit.getIsOverdue());
     response.setOverdueDays(credit.getOverdueDays());
     response.setStatus(CreditBalanceResponse.StatusEnum.valueOf(credit.getStatus().name()));
@@ -209,9 +212,9 @@ public class CreditMapper {
   /**
    * Helper: Valida que el monto esté en el rango permitido
    */
-  public boolean isValidCreditAmount(BigDecimal amount) {
+  public boolean isValidCreditAmount(Money amount) {
     return amount != null &&
-      amount.compareTo(new BigDecimal("5000")) >= 0 &&
-      amount.compareTo(new BigDecimal("100000")) <= 0;
+      !amount.isLessThan(MIN_CREDIT_AMOUNT) &&
+      !MAX_CREDIT_AMOUNT.isLessThan(amount);
   }
 }
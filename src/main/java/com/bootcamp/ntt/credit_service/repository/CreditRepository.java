@@ -1,17 +1,27 @@
 package com.bootcamp.ntt.credit_service.repository;
 
+import com.bootcamp.ntt.credit_service.dto.OverdueCreditView;
 import com.bootcamp.ntt.credit_service.entity.Credit;
 import com.bootcamp.ntt.credit_service.entity.CreditStatus;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
 import org.springframework.stereotype.Repository;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.LocalDate;
+import java.util.Collection;
+
 @Repository
-public interface CreditRepository extends ReactiveMongoRepository<Credit,String> {
+public interface CreditRepository extends ReactiveMongoRepository<Credit,String>, CreditRepositoryCustom {
   Flux<Credit> findByIsActive(Boolean isActive);
   Mono<Long> countByCustomerIdAndIsActiveTrueAndStatus(String customerId, CreditStatus status);
   Mono<Credit> findByCreditNumber(String creditNumber);
+  Flux<Credit> findByCreditNumberIn(Collection<String> creditNumbers);
   Flux<Credit> findByCustomerId(String customerId);
   Flux<Credit> findByIsActiveAndCustomerId(Boolean isActive, String customerId);
+
+  @Query(value = "{ 'customerId': ?0, 'isActive': true, 'nextPaymentDueDate': { $lt: ?1 }, 'remainingInstallments': { $gt: 0 } }",
+    fields = "{ 'creditNumber': 1, 'nextPaymentDueDate': 1, 'monthlyPayment': 1 }")
+  Flux<OverdueCreditView> findOverdueByCustomerId(String customerId, LocalDate today);
 }
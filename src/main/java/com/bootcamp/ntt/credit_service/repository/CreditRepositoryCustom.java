@@ -0,0 +1,74 @@
+package com.bootcamp.ntt.credit_service.repository;
+
+import com.bootcamp.ntt.credit_service.entity.Credit;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Operaciones que no se pueden expresar como query derivada
+ */
+public interface CreditRepositoryCustom {
+
+  /**
+   * Créditos activos con cuotas pendientes cuyo vencimiento está en [from, until) y aún no marcados como vencidos,
+   * ordenados por vencimiento. Solo trae id, número, cliente y fecha de vencimiento.
+   * @param from límite inferior para reanudar un recorrido, o null para todos los anteriores a until
+   */
+  Flux<Credit> findNewlyOverdue(LocalDate from, LocalDate until);
+
+  /**
+   * Créditos ordenados por id, a partir del id indicado (keyset).
+   * No trae los campos internos de control de concurrencia, que el listado no expone.
+   * @param customerId filtro opcional por cliente
+   * @param afterId último id de la página anterior, o null para empezar desde el inicio
+   */
+  Flux<Credit> findPage(Boolean isActive, String customerId, String afterId, int limit);
+
+  /**
+   * Recorre los créditos ordenados por id con un cursor de Mongo de lotes acotados, sin los campos internos.
+   * @param customerId filtro opcional por cliente
+   */
+  Flux<Credit> streamByActive(Boolean isActive, String customerId, int cursorBatchSize);
+
+  /**
+   * De los créditos indicados, los que siguen sin marcar y con vencimiento anterior a today (documento completo)
+   */
+  Flux<Credit> findOverdueCandidates(Collection<String> creditIds, LocalDate today);
+
+  /**
+   * Marca como vencidos los créditos indicados que sigan sin marcar; incrementa su versión
+   */
+  Mono<Long> markOverdue(Collection<String> creditIds, LocalDate today);
+
+  /**
+   * Pone version=0 en el crédito si el documento no tiene el campo.
+   * Una réplica anterior a @Version lo quita al guardar el documento completo.
+   */
+  Mono<Void> initializeVersion(String creditId);
+
+  /**
+   * Aplica un pago de cuota con un findAndModify condicional.
+   * Solo actualiza si el crédito sigue activo, con cuotas pendientes, con las mismas cuotas pagadas observadas
+   * y con la misma versión; al aplicar incrementa la versión, también en la copia en memoria.
+   * @param paid crédito con el pago ya aplicado en memoria y la versión leída
+   * @param observedPaidInstallments cuotas pagadas leídas antes de aplicar el pago
+   * @return el crédito actualizado, o vacío si otra escritura ganó la carrera
+   */
+  Mono<Credit> applyInstallmentPayment(Credit paid, int observedPaidInstallments);
+
+  /**
+   * Aplica en un bulk write desordenado los pagos de un lote, una actualización condicional por crédito.
+   * @param paidCredits créditos con todos sus pagos del lote ya aplicados en memoria
+   * @param observedPaidInstallments cuotas pagadas leídas por id de crédito antes de aplicar los pagos
+   * @param batchId marcador del lote para identificar qué actualizaciones aplicaron
+   * @return ids de los créditos actualizados; un error del bulk write se propaga, porque aborta la transacción
+   */
+  Mono<Set<String>> applyInstallmentPayments(Collection<Credit> paidCredits,
+                                             Map<String, Integer> observedPaidInstallments,
+                                             String batchId);
+}
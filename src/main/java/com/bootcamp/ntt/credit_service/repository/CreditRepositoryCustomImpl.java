@@ -0,0 +1,218 @@
+package com.bootcamp.ntt.credit_service.repository;
+
+import com.bootcamp.ntt.credit_service.entity.Credit;
+import com.bootcamp.ntt.credit_service.entity.CreditStatus;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.UpdateOneModel;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.convert.UpdateMapper;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@RequiredArgsConstructor
+public class CreditRepositoryCustomImpl implements CreditRepositoryCustom {
+
+  private final ReactiveMongoTemplate mongoTemplate;
+
+  @Override
+  public Flux<Credit> findNewlyOverdue(LocalDate from, LocalDate until) {
+    Criteria criteria = notYetOverdue().and("nextPaymentDueDate").lt(until);
+    if (from != null) {
+      criteria.gte(from);
+    }
+
+    Query query = Query.query(criteria)
+      .with(Sort.by(Sort.Direction.ASC, "nextPaymentDueDate"));
+    query.fields()
+      .include("creditNumber")
+      .include("customerId")
+      .include("nextPaymentDueDate");
+
+    return mongoTemplate.find(query, Credit.class);
+  }
+
+  @Override
+  public Flux<Credit> findPage(Boolean isActive, String customerId, String afterId, int limit) {
+    Criteria criteria = activeAndCustomer(isActive, customerId);
+    if (afterId != null) {
+      criteria.and("_id").gt(afterId);
+    }
+
+    Query query = Query.query(criteria)
+      .with(Sort.by(Sort.Direction.ASC, "_id"))
+      .limit(limit);
+    excludeInternalFields(query);
+
+    return mongoTemplate.find(query, Credit.class);
+  }
+
+  @Override
+  public Flux<Credit> streamByActive(Boolean isActive, String customerId, int cursorBatchSize) {
+    Query query = Query.query(activeAndCustomer(isActive, customerId))
+      .with(Sort.by(Sort.Direction.ASC, "_id"))
+      .cursorBatchSize(cursorBatchSize);
+    excludeInternalFields(query);
+
+    return mongoTemplate.find(query, Credit.class);
+  }
+
+  @Override
+  public Flux<Credit> findOverdueCandidates(Collection<String> creditIds, LocalDate today) {
+    return mongoTemplate.find(overdueCandidatesQuery(creditIds, today), Credit.class);
+  }
+
+  @Override
+  public Mono<Long> markOverdue(Collection<String> creditIds, LocalDate today) {
+    Query query = overdueCandidatesQuery(creditIds, today);
+
+    Update update = new Update()
+      .set("isOverdue", true)
+      .set("status", CreditStatus.OVERDUE)
+      .set("updatedAt", Instant.now())
+      .inc("version", 1);
+
+    return mongoTemplate.updateMulti(query, update, Credit.class)
+      .map(result -> result.getModifiedCount());
+  }
+
+  @Override
+  public Mono<Void> initializeVersion(String creditId) {
+    return mongoTemplate.updateFirst(
+        Query.query(Criteria.where("_id").is(creditId).and("version").exists(false)),
+        new Update().set("version", 0L),
+        Credit.class)
+      .then();
+  }
+
+  @Override
+  public Mono<Credit> applyInstallmentPayment(Credit paid, int observedPaidInstallments) {
+    return mongoTemplate.findAndModify(
+      installmentPaymentQuery(paid, observedPaidInstallments, 1),
+      installmentPaymentUpdate(paid, 1),
+      FindAndModifyOptions.options().returnNew(true),
+      Credit.class);
+  }
+
+  @Override
+  public Mono<Set<String>> applyInstallmentPayments(Collection<Credit> paidCredits,
+                                                    Map<String, Integer> observedPaidInstallments,
+                                                    String batchId) {
+    if (paidCredits.isEmpty()) {
+      return Mono.just(Collections.emptySet());
+    }
+
+    MongoPersistentEntity<?> entity = mongoTemplate.getConverter().getMappingContext()
+      .getRequiredPersistentEntity(Credit.class);
+    QueryMapper queryMapper = new QueryMapper(mongoTemplate.getConverter());
+    UpdateMapper updateMapper = new UpdateMapper(mongoTemplate.getConverter());
+
+    List<UpdateOneModel<Document>> models = new ArrayList<>(paidCredits.size());
+    for (Credit paid : paidCredits) {
+      int observed = observedPaidInstallments.get(paid.getId());
+      int installments = paid.getPaidInstallments() - observed;
+      Query query = installmentPaymentQuery(paid, observed, installments);
+      Update update = installmentPaymentUpdate(paid, installments).set("lastPaymentBatchId", batchId);
+      models.add(new UpdateOneModel<>(
+        queryMapper.getMappedObject(query.getQueryObject(), entity),
+        updateMapper.getMappedObject(update.getUpdateObject(), entity)));
+    }
+
+    return mongoTemplate.getCollection(mongoTemplate.getCollectionName(Credit.class))
+      .flatMap(collection -> Mono.from(collection.bulkWrite(models, new BulkWriteOptions().ordered(false))))
+      .map(result -> result.getMatchedCount() == models.size())
+      .flatMap(allApplied -> allApplied
+        ? Mono.just(paidCredits.stream().map(Credit::getId).collect(Collectors.toSet()))
+        : findAppliedByBatch(paidCredits, batchId));
+  }
+
+  /**
+   * Si alguna escritura no aplicó, el marcador del lote identifica cuáles sí lo hicieron
+   */
+  private Mono<Set<String>> findAppliedByBatch(Collection<Credit> paidCredits, String batchId) {
+    List<String> ids = paidCredits.stream().map(Credit::getId).collect(Collectors.toList());
+    Query query = Query.query(Criteria.where("_id").in(ids).and("lastPaymentBatchId").is(batchId));
+    query.fields().include("_id");
+
+    return mongoTemplate.find(query, Credit.class)
+      .map(Credit::getId)
+      .collect(Collectors.toSet());
+  }
+
+  /**
+   * Los listados son de solo lectura: no necesitan versión ni marcador de lote
+   */
+  private void excludeInternalFields(Query query) {
+    query.fields()
+      .exclude("version")
+      .exclude("lastPaymentBatchId");
+  }
+
+  private Criteria activeAndCustomer(Boolean isActive, String customerId) {
+    Criteria criteria = Criteria.where("isActive").is(isActive);
+    if (customerId != null) {
+      criteria.and("customerId").is(customerId);
+    }
+    return criteria;
+  }
+
+  /**
+   * La versión leída protege los campos que el update pisa (vencimiento, estado) de una escritura
+   * intermedia, como un updateCredit o la marca de morosidad; si no coincide, el llamador reintenta
+   */
+  private Query installmentPaymentQuery(Credit paid, int observedPaidInstallments, int installments) {
+    return Query.query(Criteria.where("_id").is(paid.getId())
+      .and("isActive").is(true)
+      .and("remainingInstallments").gte(installments)
+      .and("paidInstallments").is(observedPaidInstallments)
+      .and("version").is(paid.getVersion()));
+  }
+
+  /**
+   * Debe construirse después de la query: avanza la versión de la copia en memoria
+   */
+  private Update installmentPaymentUpdate(Credit paid, int installments) {
+    // la copia en memoria queda igual a lo persistido, para poder cachearla sin releer
+    paid.setUpdatedAt(Instant.now());
+    paid.setVersion(paid.getVersion() == null ? 1L : paid.getVersion() + 1);
+    return new Update()
+      .inc("paidInstallments", installments)
+      .inc("remainingInstallments", -installments)
+      .inc("version", 1)
+      .set("currentBalance", paid.getCurrentBalance())
+      .set("nextPaymentDueDate", paid.getNextPaymentDueDate())
+      .set("isOverdue", paid.getIsOverdue())
+      .set("overdueDays", paid.getOverdueDays())
+      .set("status", paid.getStatus())
+      .set("updatedAt", paid.getUpdatedAt());
+  }
+
+  private Query overdueCandidatesQuery(Collection<String> creditIds, LocalDate today) {
+    return Query.query(notYetOverdue().and("_id").in(creditIds)
+      .and("nextPaymentDueDate").lt(today));
+  }
+
+  private Criteria notYetOverdue() {
+    return Criteria.where("isActive").is(true)
+      .and("isOverdue").in(false, null)
+      .and("remainingInstallments").gt(0);
+  }
+}
@@ -0,0 +1,9 @@
+package com.bootcamp.ntt.credit_service.repository;
+
+import com.bootcamp.ntt.credit_service.entity.CustomerTypeProjection;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface CustomerTypeProjectionRepository extends ReactiveMongoRepository<CustomerTypeProjection, String> {
+}
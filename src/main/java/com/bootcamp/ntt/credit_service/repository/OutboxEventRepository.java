@@ -0,0 +1,12 @@
+package com.bootcamp.ntt.credit_service.repository;
+
+import com.bootcamp.ntt.credit_service.entity.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+@Repository
+public interface OutboxEventRepository extends ReactiveMongoRepository<OutboxEvent, String> {
+  Flux<OutboxEvent> findAllByOrderByIdAsc(Pageable pageable);
+}
@@ -0,0 +1,47 @@
+package com.bootcamp.ntt.credit_service.service;
+
+import com.bootcamp.ntt.credit_service.dto.VersionedValue;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.function.Supplier;
+
+public interface CacheService {
+
+  <T> Mono<T> get(String key, Class<T> valueType);
+
+  Mono<Boolean> set(String key, Object value, Duration ttl);
+
+  /**
+   * Lee del cache y, ante un miss, ejecuta el loader una sola vez por clave
+   * aunque haya varias peticiones concurrentes esperando el mismo valor.
+   */
+  <T> Mono<T> getOrLoad(String key, Class<T> valueType, Supplier<Mono<T>> loader, Duration ttl);
+
+  /**
+   * Como getOrLoad, pero el valor cargado solo se escribe si su versión no es menor que la cacheada:
+   * una carga lenta no pisa lo que ya escribió una actualización posterior.
+   */
+  <T> Mono<T> getOrLoadVersioned(String key, Class<T> valueType, Supplier<Mono<VersionedValue<T>>> loader,
+                                 Duration ttl);
+
+  /**
+   * Escribe varias claves con el mismo TTL en un solo script: cada una solo si su versión
+   * no es menor que la cacheada, así un escritor atrasado no pisa a uno posterior ni revive un borrado.
+   * Las demás réplicas descartan esas claves de su L1 y las vuelven a leer de Redis.
+   */
+  Mono<Void> setAll(Map<String, VersionedValue<?>> values, Duration ttl);
+
+  /**
+   * Borra las claves y recuerda su versión durante ttl: solo se vuelven a escribir valores
+   * de esa versión o posteriores. Los errores se registran y no se propagan.
+   */
+  Mono<Void> invalidate(Map<String, Long> versions, Duration ttl);
+
+  /**
+   * Borra las claves con un único DEL y avisa a las demás réplicas.
+   * Completa cuando Redis confirma; los errores se registran y no se propagan.
+   */
+  Mono<Void> invalidate(String... keys);
+}
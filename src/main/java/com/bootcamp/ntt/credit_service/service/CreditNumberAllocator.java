@@ -0,0 +1,8 @@
+package com.bootcamp.ntt.credit_service.service;
+
+import reactor.core.publisher.Mono;
+
+public interface CreditNumberAllocator {
+
+  Mono<String> nextCreditNumber();
+}
@@ -1,5 +1,6 @@
 package com.bootcamp.ntt.credit_service.service;
 
+import com.bootcamp.ntt.credit_service.dto.CreditBalanceSnapshot;
 import com.bootcamp.ntt.credit_service.model.*;
 import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Flux;
@@ -16,6 +17,8 @@ public interface CreditService {
 
   Flux<CreditResponse> getCreditsByActiveAndCustomer(Boolean isActive, String customerId);
 
+  Mono<CreditPage> getCreditsPage(Boolean isActive, String customerId, String cursor, Integer limit);
+
   Mono<CreditResponse> createCredit(CreditCreateRequest creditRequest, ServerWebExchange exchange);
 
   Mono<ProductEligibilityResponse> checkCustomerEligibility(String customerId);
@@ -32,7 +35,11 @@ public interface CreditService {
 
   Mono<PaymentProcessResponse> processPayment(String creditNumber, PaymentProcessRequest paymentRequest);
 
+  Flux<BatchPaymentResult> processPaymentBatch(Flux<BatchPaymentItem> payments);
+
   Mono<CreditBalanceResponse> getCreditBalance(String cardNumber);
 
+  Mono<CreditBalanceSnapshot> getCreditBalanceSnapshot(String creditNumber);
+
 
 }
@@ -0,0 +1,18 @@
+package com.bootcamp.ntt.credit_service.service;
+
+import com.bootcamp.ntt.credit_service.client.dto.customer.CustomerTypeResponse;
+import com.bootcamp.ntt.credit_service.dto.CustomerEvent;
+import reactor.core.publisher.Mono;
+
+public interface CustomerTypeService {
+
+  /**
+   * Tipo de cliente desde la réplica local; solo consulta customer-service si el cliente no es conocido
+   */
+  Mono<CustomerTypeResponse> getCustomerType(String customerId);
+
+  /**
+   * Aplica un evento de cliente a la réplica, ignorando eventos más antiguos que el valor guardado
+   */
+  Mono<Void> applyEvent(CustomerEvent event);
+}
@@ -0,0 +1,17 @@
+package com.bootcamp.ntt.credit_service.service;
+
+import reactor.core.publisher.Mono;
+
+import java.util.function.Supplier;
+
+public interface IdempotencyService {
+
+  /**
+   * Ejecuta la acción una sola vez por clave de idempotencia.
+   * Los reintentos reciben la respuesta guardada y los duplicados concurrentes esperan a la primera ejecución.
+   * Un reintento con la misma clave y otra huella falla con BusinessRuleException IDEMPOTENCY_KEY_REUSED.
+   * @param fingerprint huella de la petición (los campos que determinan el resultado), o null para no verificarla
+   */
+  <T> Mono<T> execute(String scope, String idempotencyKey, String fingerprint, Class<T> resultType,
+                      Supplier<Mono<T>> action);
+}
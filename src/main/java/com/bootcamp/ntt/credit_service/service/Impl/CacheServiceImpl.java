@@ -0,0 +1,411 @@
+package com.bootcamp.ntt.credit_service.service.Impl;
+
+import com.bootcamp.ntt.credit_service.dto.VersionedValue;
+import com.bootcamp.ntt.credit_service.service.CacheService;
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.ReactiveSubscription;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisElementReader;
+import org.springframework.data.redis.serializer.RedisElementWriter;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.util.ByteUtils;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+import static com.bootcamp.ntt.credit_service.utils.CacheKeys.FAMILIES;
+import static com.bootcamp.ntt.credit_service.utils.CacheKeys.INVALIDATION_CHANNEL;
+import static com.bootcamp.ntt.credit_service.utils.CacheKeys.family;
+import static com.bootcamp.ntt.credit_service.utils.CacheKeys.versionKey;
+
+/**
+ * Cache de dos niveles: L1 en memoria (Caffeine) delante de Redis.
+ * Las invalidaciones se publican por pub/sub para mantener coherente el L1 de las demás réplicas.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CacheServiceImpl implements CacheService {
+
+  private static final String NODE_SEPARATOR = "|";
+  private static final String KEY_SEPARATOR = ",";
+  private static final String OUTCOME_SUCCESS = "success";
+  private static final String OUTCOME_FAILURE = "failure";
+  private static final String OUTCOME_ERROR = "error";
+  private static final String OPERATION_GET = "get";
+  private static final String OPERATION_SET = "set";
+  private static final String OPERATION_INVALIDATE = "invalidate";
+  private static final String OUTCOME_STALE = "stale";
+  private static final String OUTCOME_L1_HIT = "l1_hit";
+  private static final String OUTCOME_REDIS_HIT = "redis_hit";
+  private static final String OUTCOME_MISS = "miss";
+  private static final Map<String, List<String>> OUTCOMES_BY_OPERATION = Map.of(
+    OPERATION_GET, List.of(OUTCOME_L1_HIT, OUTCOME_REDIS_HIT, OUTCOME_MISS, OUTCOME_ERROR),
+    OPERATION_SET, List.of(OUTCOME_SUCCESS, OUTCOME_FAILURE, OUTCOME_STALE, OUTCOME_ERROR),
+    OPERATION_INVALIDATE, List.of(OUTCOME_SUCCESS, OUTCOME_ERROR));
+  private static final byte[] NO_VALUE = new byte[0];
+
+  /**
+   * Compare-and-set por versión. KEYS: pares (clave, clave de versión); ARGV[1]: TTL en ms
+   * y luego pares (versión, valor serializado; vacío = borrar la clave).
+   * Solo escribe si la versión cacheada no es mayor; devuelve un '1' o '0' por clave.
+   */
+  private static final RedisScript<String> VERSIONED_WRITE = RedisScript.of(
+    "local result = ''\n"
+      + "for i = 1, #KEYS, 2 do\n"
+      + "  local cached = redis.call('GET', KEYS[i + 1])\n"
+      + "  local version = ARGV[i + 1]\n"
+      + "  if cached and tonumber(cached) > tonumber(version) then\n"
+      + "    result = result .. '0'\n"
+      + "  else\n"
+      + "    if ARGV[i + 2] == '' then\n"
+      + "      redis.call('DEL', KEYS[i])\n"
+      + "    else\n"
+      + "      redis.call('SET', KEYS[i], ARGV[i + 2], 'PX', ARGV[1])\n"
+      + "    end\n"
+      + "    redis.call('SET', KEYS[i + 1], version, 'PX', ARGV[1])\n"
+      + "    result = result .. '1'\n"
+      + "  end\n"
+      + "end\n"
+      + "return result\n",
+    String.class);
+
+  private final ReactiveRedisTemplate<String, Object> redisTemplate;
+  private final ReactiveStringRedisTemplate stringRedisTemplate;
+  private final Cache<String, Object> creditLocalCache;
+  private final MeterRegistry meterRegistry;
+
+  private final String nodeId = UUID.randomUUID().toString();
+  private final Map<String, Mono<Object>> inFlightLoads = new ConcurrentHashMap<>();
+  // operación -> familia -> resultado; registrados de antemano para no pasar por el registry en cada llamada
+  private final Map<String, Map<String, Map<String, Counter>>> operationCounters = new HashMap<>();
+  private final Map<String, Timer> invalidationTimers = new HashMap<>();
+  private Counter coalescedWaiters;
+  private Disposable invalidationSubscription;
+
+  @PostConstruct
+  public void init() {
+    registerMetrics();
+    subscribeToInvalidations();
+  }
+
+  @PreDestroy
+  public void unsubscribeFromInvalidations() {
+    if (invalidationSubscription != null) {
+      invalidationSubscription.dispose();
+    }
+  }
+
+  private void registerMetrics() {
+    coalescedWaiters = Counter.builder("credit.cache.coalesced.waiters")
+      .description("Cache misses served by an already in-flight load for the same key")
+      .register(meterRegistry);
+    Gauge.builder("credit.cache.inflight.loads", inFlightLoads, Map::size)
+      .description("Cache loads currently in flight")
+      .register(meterRegistry);
+    OUTCOMES_BY_OPERATION.forEach((operation, outcomes) -> {
+      Map<String, Map<String, Counter>> byFamily = operationCounters.computeIfAbsent(operation, k -> new HashMap<>());
+      for (String family : FAMILIES) {
+        Map<String, Counter> byOutcome = byFamily.computeIfAbsent(family, k -> new HashMap<>());
+        outcomes.forEach(outcome -> byOutcome.put(outcome, Counter.builder("credit.cache.operations")
+          .description("Cache operations by key family and outcome")
+          .tag("operation", operation)
+          .tag("family", family)
+          .tag("outcome", outcome)
+          .register(meterRegistry)));
+      }
+    });
+    for (String outcome : List.of(OUTCOME_SUCCESS, OUTCOME_ERROR)) {
+      invalidationTimers.put(outcome, Timer.builder("credit.cache.invalidation")
+        .description("Latency of cache invalidations (multi-key DEL + publish)")
+        .tag("outcome", outcome)
+        .register(meterRegistry));
+    }
+  }
+
+  private void subscribeToInvalidations() {
+    invalidationSubscription = stringRedisTemplate.listenToChannel(INVALIDATION_CHANNEL)
+      .map(ReactiveSubscription.Message::getMessage)
+      .doOnNext(this::handleInvalidationMessage)
+      .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofSeconds(30))
+        .doBeforeRetry(signal -> log.warn("Cache invalidation listener failed, resubscribing: {}",
+          signal.failure().getMessage())))
+      .subscribe();
+  }
+
+  @Override
+  public <T> Mono<T> get(String key, Class<T> valueType) {
+    Object local = creditLocalCache.getIfPresent(key);
+    if (valueType.isInstance(local)) {
+      log.debug("L1 CACHE HIT: {}", key);
+      recordOperation(OPERATION_GET, key, OUTCOME_L1_HIT);
+      return Mono.just(valueType.cast(local));
+    }
+
+    return redisTemplate.opsForValue()
+      .get(key)
+      .cast(valueType)
+      .doOnNext(cached -> {
+        log.debug("REDIS CACHE HIT: {}", key);
+        creditLocalCache.put(key, cached);
+      })
+      .doOnSuccess(cached -> recordOperation(OPERATION_GET, key, cached != null ? OUTCOME_REDIS_HIT : OUTCOME_MISS))
+      .onErrorResume(error -> {
+        log.warn("Redis read error for key {}: {}", key, error.getMessage());
+        recordOperation(OPERATION_GET, key, OUTCOME_ERROR);
+        return Mono.empty(); // cache miss
+      });
+  }
+
+  @Override
+  public Mono<Boolean> set(String key, Object value, Duration ttl) {
+    creditLocalCache.put(key, value);
+
+    return redisTemplate.opsForValue()
+      .set(key, value, ttl)
+      .doOnSuccess(success -> {
+        if (Boolean.TRUE.equals(success)) {
+          log.debug("REDIS CACHE SET: {} (TTL: {})", key, ttl);
+          recordOperation(OPERATION_SET, key, OUTCOME_SUCCESS);
+        } else {
+          log.warn("Redis cache SET failed for key: {}", key);
+          recordOperation(OPERATION_SET, key, OUTCOME_FAILURE);
+        }
+      })
+      .onErrorResume(error -> {
+        log.error("Redis write error for key {}: {}", key, error.getMessage());
+        recordOperation(OPERATION_SET, key, OUTCOME_ERROR);
+        return Mono.just(false);
+      });
+  }
+
+  @Override
+  public Mono<Void> setAll(Map<String, VersionedValue<?>> values, Duration ttl) {
+    if (values.isEmpty()) {
+      return Mono.empty();
+    }
+
+    return Mono.defer(() -> {
+      List<String> keys = new ArrayList<>(values.keySet());
+      Map<String, Long> versions = new HashMap<>();
+      Map<String, byte[]> serialized = new HashMap<>();
+      values.forEach((key, value) -> {
+        versions.put(key, value.getVersion());
+        serialized.put(key, serialize(value.getValue()));
+      });
+
+      return writeVersioned(keys, versions, serialized, ttl)
+        .flatMap(written -> {
+          List<String> stale = new ArrayList<>();
+          for (int i = 0; i < keys.size(); i++) {
+            String key = keys.get(i);
+            if (written.charAt(i) == '1') {
+              creditLocalCache.put(key, values.get(key).getValue());
+              recordOperation(OPERATION_SET, key, OUTCOME_SUCCESS);
+            } else {
+              stale.add(key);
+              recordOperation(OPERATION_SET, key, OUTCOME_STALE);
+            }
+          }
+          creditLocalCache.invalidateAll(stale);
+          if (!stale.isEmpty()) {
+            log.debug("Skipped stale cache writes (a newer version is cached): {}", stale);
+          }
+          log.debug("REDIS CACHE WRITE-THROUGH: {} (TTL: {})", keys, ttl);
+          return publishInvalidation(keys);
+        })
+        .onErrorResume(error -> {
+          // un valor a medio escribir no debe quedar: se borra para que el próximo lector recargue
+          log.error("Redis write-through error for keys {}: {}", keys, error.getMessage());
+          recordOperations(OPERATION_SET, keys, OUTCOME_ERROR);
+          return invalidate(keys.toArray(new String[0]));
+        });
+    });
+  }
+
+  @Override
+  public Mono<Void> invalidate(Map<String, Long> versions, Duration ttl) {
+    if (versions.isEmpty()) {
+      return Mono.empty();
+    }
+
+    return Mono.defer(() -> {
+      List<String> keys = new ArrayList<>(versions.keySet());
+      creditLocalCache.invalidateAll(keys);
+      Timer.Sample sample = Timer.start(meterRegistry);
+
+      return writeVersioned(keys, versions, Map.of(), ttl)
+        .then(publishInvalidation(keys))
+        .doOnSuccess(unused -> {
+          // una lectura concurrente pudo repoblar el L1 desde Redis antes del borrado
+          creditLocalCache.invalidateAll(keys);
+          sample.stop(invalidationTimer(OUTCOME_SUCCESS));
+          recordOperations(OPERATION_INVALIDATE, keys, OUTCOME_SUCCESS);
+          log.debug("Cache invalidated up to version: {}", versions);
+        })
+        .onErrorResume(error -> {
+          sample.stop(invalidationTimer(OUTCOME_ERROR));
+          recordOperations(OPERATION_INVALIDATE, keys, OUTCOME_ERROR);
+          log.error("Cache invalidation error for keys {}: {}", keys, error.getMessage());
+          return Mono.empty();
+        });
+    });
+  }
+
+  @Override
+  public <T> Mono<T> getOrLoad(String key, Class<T> valueType, Supplier<Mono<T>> loader, Duration ttl) {
+    return get(key, valueType)
+      .switchIfEmpty(Mono.defer(() -> loadOnce(key,
+        () -> loader.get().flatMap(value -> set(key, value, ttl).thenReturn(value)))).cast(valueType));
+  }
+
+  @Override
+  public <T> Mono<T> getOrLoadVersioned(String key, Class<T> valueType, Supplier<Mono<VersionedValue<T>>> loader,
+                                        Duration ttl) {
+    return get(key, valueType)
+      .switchIfEmpty(Mono.defer(() -> loadOnce(key,
+          () -> loader.get().flatMap(loaded -> setAll(Map.of(key, loaded), ttl).thenReturn(loaded.getValue()))))
+        .cast(valueType));
+  }
+
+  @Override
+  public Mono<Void> invalidate(String... keys) {
+    if (keys.length == 0) {
+      return Mono.empty();
+    }
+    List<String> keyList = Arrays.asList(keys);
+
+    return Mono.defer(() -> {
+      creditLocalCache.invalidateAll(keyList);
+      Timer.Sample sample = Timer.start(meterRegistry);
+
+      // DEL y PUBLISH salen juntos por la conexión compartida y Redis los ejecuta en orden:
+      // las demás réplicas reciben el aviso después de que las claves ya no existen
+      return Mono.when(
+          redisTemplate.delete(keys),
+          stringRedisTemplate.convertAndSend(INVALIDATION_CHANNEL,
+            nodeId + NODE_SEPARATOR + String.join(KEY_SEPARATOR, keys)))
+        .doOnSuccess(unused -> {
+          // una lectura concurrente pudo repoblar el L1 desde Redis antes del DEL
+          creditLocalCache.invalidateAll(keyList);
+          sample.stop(invalidationTimer(OUTCOME_SUCCESS));
+          recordOperations(OPERATION_INVALIDATE, keyList, OUTCOME_SUCCESS);
+          log.debug("Cache invalidated: {}", keyList);
+        })
+        .onErrorResume(error -> {
+          sample.stop(invalidationTimer(OUTCOME_ERROR));
+          recordOperations(OPERATION_INVALIDATE, keyList, OUTCOME_ERROR);
+          log.error("Cache invalidation error for keys {}: {}", keyList, error.getMessage());
+          return Mono.empty();
+        });
+    });
+  }
+
+  /**
+   * Ejecuta el compare-and-set; las claves sin valor serializado se borran
+   * @return un '1' por clave escrita y un '0' por clave con una versión cacheada mayor
+   */
+  private Mono<String> writeVersioned(List<String> keys, Map<String, Long> versions,
+                                      Map<String, byte[]> serialized, Duration ttl) {
+    List<String> scriptKeys = new ArrayList<>(keys.size() * 2);
+    List<byte[]> args = new ArrayList<>(keys.size() * 2 + 1);
+    args.add(utf8(String.valueOf(ttl.toMillis())));
+    for (String key : keys) {
+      scriptKeys.add(key);
+      scriptKeys.add(versionKey(key));
+      args.add(utf8(String.valueOf(versions.get(key))));
+      args.add(serialized.getOrDefault(key, NO_VALUE));
+    }
+
+    return redisTemplate.execute(VERSIONED_WRITE, scriptKeys, args,
+        RedisElementWriter.from(RedisSerializer.byteArray()),
+        RedisElementReader.from(RedisSerializer.string()))
+      .next();
+  }
+
+  private Mono<Void> publishInvalidation(Collection<String> keys) {
+    return stringRedisTemplate.convertAndSend(INVALIDATION_CHANNEL,
+        nodeId + NODE_SEPARATOR + String.join(KEY_SEPARATOR, keys))
+      .then();
+  }
+
+  private byte[] serialize(Object value) {
+    return ByteUtils.getBytes(redisTemplate.getSerializationContext().getValueSerializationPair().write(value));
+  }
+
+  private static byte[] utf8(String value) {
+    return value.getBytes(StandardCharsets.UTF_8);
+  }
+
+  private Timer invalidationTimer(String outcome) {
+    return invalidationTimers.get(outcome);
+  }
+
+  private void recordOperations(String operation, Collection<String> keys, String outcome) {
+    keys.forEach(key -> recordOperation(operation, key, outcome));
+  }
+
+  /**
+   * Resultado por familia de clave (credit-by-id, balance, ...), nunca por clave
+   */
+  private void recordOperation(String operation, String key, String outcome) {
+    operationCounters.get(operation).get(family(key)).get(outcome).increment();
+  }
+
+  /**
+   * Single-flight: el primer miss registra la carga y los demás se suscriben a la misma.
+   * La entrada se elimina al terminar para que el siguiente miss vuelva a consultar.
+   */
+  private Mono<Object> loadOnce(String key, Supplier<? extends Mono<?>> loadAndStore) {
+    AtomicBoolean leader = new AtomicBoolean(false);
+    Mono<Object> load = inFlightLoads.computeIfAbsent(key, k -> {
+      leader.set(true);
+      return Mono.defer(loadAndStore)
+        .cast(Object.class)
+        .doFinally(signal -> inFlightLoads.remove(k))
+        .cache();
+    });
+
+    if (!leader.get()) {
+      coalescedWaiters.increment();
+      log.debug("Cache miss coalesced with in-flight load: {}", key);
+    }
+    return load;
+  }
+
+  private void handleInvalidationMessage(String message) {
+    int separator = message.indexOf(NODE_SEPARATOR);
+    if (separator < 0 || message.substring(0, separator).equals(nodeId)) {
+      return;
+    }
+
+    String[] keys = message.substring(separator + 1).split(KEY_SEPARATOR);
+    creditLocalCache.invalidateAll(Arrays.asList(keys));
+    log.debug("L1 cache invalidated from remote node: {}", Arrays.toString(keys));
+  }
+}
@@ -0,0 +1,106 @@
+package com.bootcamp.ntt.credit_service.service.Impl;
+
+import com.bootcamp.ntt.credit_service.entity.CreditSequence;
+import com.bootcamp.ntt.credit_service.service.CreditNumberAllocator;
+import com.bootcamp.ntt.credit_service.utils.CreditUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Reserva rangos de secuencia con un $inc atómico en Mongo y los reparte desde memoria.
+ * Cada nodo consulta Mongo una vez por bloque, nunca por crédito creado.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CreditNumberAllocatorImpl implements CreditNumberAllocator {
+
+  private static final String CREDIT_NUMBER_SEQUENCE = "creditNumber";
+
+  private final ReactiveMongoTemplate mongoTemplate;
+  private final CreditUtils creditUtils;
+
+  @Value("${credit.number.block-size:100}")
+  private long blockSize;
+
+  private volatile Block currentBlock = Block.EMPTY;
+  private Mono<Block> pendingReservation;
+
+  @Override
+  public Mono<String> nextCreditNumber() {
+    return Mono.defer(() -> {
+      Block block = currentBlock;
+      long sequence = block.take();
+      if (sequence > 0) {
+        return Mono.just(creditUtils.formatCreditNumber(sequence));
+      }
+      return refill(block).then(nextCreditNumber());
+    });
+  }
+
+  /**
+   * Solo una reserva en vuelo por nodo: las peticiones que agotan el bloque esperan la misma.
+   */
+  private synchronized Mono<Block> refill(Block exhausted) {
+    if (currentBlock != exhausted) {
+      return Mono.just(currentBlock);
+    }
+    if (pendingReservation == null) {
+      pendingReservation = reserveBlock()
+        .doOnNext(block -> currentBlock = block)
+        .doFinally(signal -> clearPendingReservation())
+        .cache();
+    }
+    return pendingReservation;
+  }
+
+  private synchronized void clearPendingReservation() {
+    pendingReservation = null;
+  }
+
+  private Mono<Block> reserveBlock() {
+    return mongoTemplate.findAndModify(
+        Query.query(Criteria.where("_id").is(CREDIT_NUMBER_SEQUENCE)),
+        new Update().inc("value", blockSize),
+        FindAndModifyOptions.options().upsert(true).returnNew(true),
+        CreditSequence.class)
+      .map(sequence -> {
+        long last = sequence.getValue();
+        if (last > CreditUtils.MAX_SEQUENCE) {
+          throw new IllegalStateException("Credit number sequence exhausted");
+        }
+        log.debug("Reserved credit number block [{}, {}]", last - blockSize + 1, last);
+        return new Block(last - blockSize + 1, last);
+      });
+  }
+
+  private static final class Block {
+    private static final Block EMPTY = new Block(1, 0);
+
+    private final AtomicLong next;
+    private final long last;
+
+    private Block(long first, long last) {
+      this.next = new AtomicLong(first);
+      this.last = last;
+    }
+
+    /**
+     * @return la siguiente secuencia del bloque o -1 si está agotado
+     */
+    private long take() {
+      long sequence = next.getAndIncrement();
+      return sequence <= last ? sequence : -1;
+    }
+  }
+}
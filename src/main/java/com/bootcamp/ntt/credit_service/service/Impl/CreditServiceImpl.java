@@ -1,29 +1,64 @@
 package com.bootcamp.ntt.credit_service.service.Impl;
 
 import com.bootcamp.ntt.credit_service.client.CustomerServiceClient;
+import com.bootcamp.ntt.credit_service.dto.CreditBalanceSnapshot;
+import com.bootcamp.ntt.credit_service.dto.OverdueCreditView;
+import com.bootcamp.ntt.credit_service.dto.VersionedValue;
 import com.bootcamp.ntt.credit_service.entity.Credit;
+import com.bootcamp.ntt.credit_service.entity.CreditEventType;
 import com.bootcamp.ntt.credit_service.entity.CreditStatus;
+import com.bootcamp.ntt.credit_service.entity.Money;
 import com.bootcamp.ntt.credit_service.exception.BusinessRuleException;
 import com.bootcamp.ntt.credit_service.mapper.CreditMapper;
 import com.bootcamp.ntt.credit_service.model.*;
 import com.bootcamp.ntt.credit_service.repository.CreditRepository;
+import com.bootcamp.ntt.credit_service.service.CacheService;
+import com.bootcamp.ntt.credit_service.service.CreditNumberAllocator;
 import com.bootcamp.ntt.credit_service.service.CreditService;
+import com.bootcamp.ntt.credit_service.service.CustomerTypeService;
 import com.bootcamp.ntt.credit_service.service.ExternalServiceWrapper;
+import com.bootcamp.ntt.credit_service.service.OutboxService;
 import com.bootcamp.ntt.credit_service.utils.CreditUtils;
+import com.mongodb.MongoException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.MongoTransactionException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
 import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.ServerWebInputException;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
+import reactor.util.retry.Retry;
 
-import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
 import java.security.SecureRandom;
 import java.time.Duration;
+import java.time.LocalDate;
 import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
 
 import static com.bootcamp.ntt.credit_service.utils.CacheKeys.*;
 
@@ -33,98 +68,168 @@ import static com.bootcamp.ntt.credit_service.utils.CacheKeys.*;
 @RequiredArgsConstructor
 public class CreditServiceImpl implements CreditService {
 
+  private static final int OPTIMISTIC_LOCK_RETRIES = 3;
+  private static final int DEFAULT_PAGE_SIZE = 50;
+  private static final String PAYMENT_CHANNEL_SINGLE = "single";
+  private static final String PAYMENT_CHANNEL_BATCH = "batch";
+
   private final CreditRepository creditRepository;
   private final CreditMapper creditMapper;
   private final CustomerServiceClient customerServiceClient;
   private final ExternalServiceWrapper externalServiceWrapper;
-  private final ReactiveRedisTemplate<String, Object> redisTemplate;
+  private final CacheService cacheService;
+  private final CreditNumberAllocator creditNumberAllocator;
   private final CreditUtils creditUtils;
+  private final OutboxService outboxService;
+  private final CustomerTypeService customerTypeService;
+  private final MeterRegistry meterRegistry;
+  private final TransactionalOperator transactionalOperator;
+
+  @Value("${credit.payments.batch-chunk-size:500}")
+  private int paymentBatchChunkSize;
+
+  @Value("${credit.listing.max-page-size:500}")
+  private int maxPageSize;
+
+  @Value("${credit.listing.cursor-batch-size:256}")
+  private int listingCursorBatchSize;
+
+  @Value("${cache.write-through.enabled:true}")
+  private boolean writeThroughEnabled;
 
   @Override
   public Mono<CreditResponse> getCreditById(String id) {
-    String cacheKey = "credit:master:id:" + id;
+    String cacheKey = CREDIT_BY_ID + id;
     log.debug("Getting credit by ID: {}", id);
 
-    return getCachedValue(cacheKey, CreditResponse.class)
-      .switchIfEmpty(
-        creditRepository.findById(id)
-          .doOnNext(this::updateCreditStatusIfNeeded)
-          .map(creditMapper::toResponse)
-          .flatMap(response ->
-            setCachedValue(cacheKey, response, MASTER_DATA_TTL)
-              .thenReturn(response)
-          )
-          .doOnSuccess(credit -> {
-            if (credit != null) {
-              log.debug("Credit found and cached: {}", id);
-            } else {
-              log.debug("Credit not found: {}", id);
-            }
-          })
-      );
+    return cacheService.getOrLoadVersioned(cacheKey, CreditResponse.class,
+        () -> creditRepository.findById(id)
+          .map(credit -> VersionedValue.of(creditMapper.toResponse(credit), versionOf(credit))),
+        MASTER_DATA_TTL)
+      .doOnSuccess(credit -> {
+        if (credit != null) {
+          log.debug("Credit found: {}", id);
+        } else {
+          log.debug("Credit not found: {}", id);
+        }
+      });
   }
 
   @Override
   public Mono<CreditResponse> getCreditByNumber(String cardNumber) {
-    String cacheKey = "credit:master:number:" + cardNumber;
+    String cacheKey = CREDIT_BY_NUMBER + cardNumber;
     log.debug("Getting credit by number: {}", cardNumber);
 
-    return getCachedValue(cacheKey, CreditResponse.class)
-      .switchIfEmpty(
-        creditRepository.findByCreditNumber(cardNumber)
-          .doOnNext(this::updateCreditStatusIfNeeded)
-          .map(creditMapper::toResponse)
-          .flatMap(response ->
-            setCachedValue(cacheKey, response, MASTER_DATA_TTL)
-              .thenReturn(response)
-          )
-          .doOnSuccess(credit -> {
-            if (credit != null) {
-              log.debug("Credit found and cached: {}", cardNumber);
-            } else {
-              log.debug("Credit not found: {}", cardNumber);
-            }
-          })
-      );
+    if (!creditUtils.isValidCreditNumber(cardNumber)) {
+      log.debug("Credit not found: {}", cardNumber);
+      return Mono.empty();
+    }
+
+    return cacheService.getOrLoadVersioned(cacheKey, CreditResponse.class,
+        () -> creditRepository.findByCreditNumber(cardNumber)
+          .map(credit -> VersionedValue.of(creditMapper.toResponse(credit), versionOf(credit))),
+        MASTER_DATA_TTL)
+      .doOnSuccess(credit -> {
+        if (credit != null) {
+          log.debug("Credit found: {}", cardNumber);
+        } else {
+          log.debug("Credit not found: {}", cardNumber);
+        }
+      });
   }
 
   @Override
   public Mono<CreditResponse> createCredit(CreditCreateRequest creditRequest, ServerWebExchange exchange) {
-    return externalServiceWrapper.getCustomerTypeWithCircuitBreaker(creditRequest.getCustomerId())
-      .flatMap(customerType -> {
-        log.debug("Customer type validated: {} for customer: {}",
-          customerType.getCustomerType(), creditRequest.getCustomerId());
-
-        return validateCreditCreation(creditRequest.getCustomerId(), customerType.getCustomerType())
-          .then(externalServiceWrapper.getCustomerEligibilityWithCircuitBreaker(creditRequest.getCustomerId(), exchange))
-          .flatMap(eligibilityResponse -> {
-            if (!eligibilityResponse.isEligible()) {
-              log.warn("Customer {} not eligible for credit due to overdue debt.",
-                creditRequest.getCustomerId());
-              return Mono.error(new BusinessRuleException(
-                "CUSTOMER_HAS_OVERDUE_DEBT",
-                "Customer cannot acquire new products due to overdue debt"
-              ));
-            }
-            log.debug("Customer {} is eligible for new credit products", creditRequest.getCustomerId());
-            return Mono.just(customerType.getCustomerType());
-          })
-          .then(generateUniqueCreditNumber())
-          .map(creditNumber -> {
-            Credit credit = creditMapper.toEntity(creditRequest, customerType.getCustomerType(), creditNumber);
-            credit.initializeNewCredit();
-            log.debug("Credit entity created - number: {}, monthly payment: {}",
-              creditNumber, credit.getMonthlyPayment());
-            return credit;
-          })
-          .flatMap(creditRepository::save)
-          .map(creditMapper::toResponse);
+    String customerId = creditRequest.getCustomerId();
+
+    // Solo la regla de crédito personal depende del tipo de cliente; elegibilidad y número van en paralelo.
+    // Mono.zip cancela las demás etapas en cuanto una falla.
+    Mono<String> customerType = timeCreateStage("customer-type", customerTypeService.getCustomerType(customerId))
+      .flatMap(response -> {
+        log.debug("Customer type validated: {} for customer: {}", response.getCustomerType(), customerId);
+        return timeCreateStage("business-rules", validateCreditCreation(customerId, response.getCustomerType()))
+          .thenReturn(response.getCustomerType());
+      });
+
+    Mono<Boolean> eligibility = timeCreateStage("eligibility",
+      externalServiceWrapper.getCustomerEligibilityWithCircuitBreaker(customerId, exchange))
+      .flatMap(eligibilityResponse -> {
+        if (!eligibilityResponse.isEligible()) {
+          log.warn("Customer {} not eligible for credit due to overdue debt.", customerId);
+          return Mono.error(new BusinessRuleException(
+            "CUSTOMER_HAS_OVERDUE_DEBT",
+            "Customer cannot acquire new products due to overdue debt"
+          ));
+        }
+        log.debug("Customer {} is eligible for new credit products", customerId);
+        return Mono.just(true);
+      });
+
+    Mono<String> creditNumber = timeCreateStage("credit-number", generateUniqueCreditNumber());
+
+    return Mono.zip(customerType, eligibility, creditNumber)
+      .map(stages -> {
+        Credit credit = creditMapper.toEntity(creditRequest, stages.getT1(), stages.getT3());
+        credit.initializeNewCredit();
+        log.debug("Credit entity created - number: {}, monthly payment: {}",
+          stages.getT3(), credit.getMonthlyPayment());
+        return credit;
       })
-      .doOnSuccess(response -> {
+      .flatMap(credit -> timeCreateStage("persist", saveWithEvent(credit, CreditEventType.CREDIT_CREATED)))
+      .flatMap(credit -> refreshCreditCaches(List.of(credit)).thenReturn(credit))
+      .map(creditMapper::toResponse)
+      .as(create -> timeCreateStage("total", create))
+      .doOnSuccess(response ->
         log.info("Credit created successfully - ID: {}, Customer: {}, Monthly payment: {}, Total installments: {}",
-          response.getId(), response.getCustomerId(), response.getMonthlyPayment(), response.getTotalInstallments());
-        invalidateCustomerCaches(response.getCustomerId());
-      });
+          response.getId(), response.getCustomerId(), response.getMonthlyPayment(), response.getTotalInstallments()));
+  }
+
+  /**
+   * Registra la latencia de una etapa de createCredit, desde la suscripción hasta que termina, falla o se cancela
+   */
+  private <T> Mono<T> timeCreateStage(String stage, Mono<T> stageMono) {
+    return Mono.defer(() -> {
+      Timer.Sample sample = Timer.start(meterRegistry);
+      return stageMono.doFinally(signal -> sample.stop(Timer.builder("credit.create.stage")
+        .description("Latency of each createCredit stage")
+        .tag("stage", stage)
+        .tag("outcome", signal == SignalType.ON_ERROR ? "error" : signal == SignalType.CANCEL ? "cancelled" : "success")
+        .publishPercentileHistogram()
+        .register(meterRegistry)));
+    });
+  }
+
+  /**
+   * Pagos por canal y código de error; sin ids para mantener acotada la cardinalidad
+   */
+  private void recordPaymentOutcome(String channel, PaymentProcessResponse response) {
+    paymentCounter(channel,
+      Boolean.TRUE.equals(response.getSuccess()) ? "success" : "failure",
+      response.getErrorCode() != null ? response.getErrorCode().getValue() : "none")
+      .increment();
+  }
+
+  private void recordPaymentError(String channel) {
+    paymentCounter(channel, "error", "none").increment();
+  }
+
+  private Counter paymentCounter(String channel, String outcome, String errorCode) {
+    return Counter.builder("credit.payments")
+      .description("Installment payments by channel, outcome and error code")
+      .tag("channel", channel)
+      .tag("outcome", outcome)
+      .tag("error_code", errorCode)
+      .register(meterRegistry);
+  }
+
+  /**
+   * Escrituras que chocaron con otra concurrente: reintentadas, o que agotaron los reintentos
+   */
+  private Counter writeConflictCounter(String outcome) {
+    return Counter.builder("credit.write.conflicts")
+      .description("Write conflicts on credit updates by outcome")
+      .tag("outcome", outcome)
+      .register(meterRegistry);
   }
 
   @Override
@@ -135,11 +240,10 @@ public class CreditServiceImpl implements CreditService {
       .switchIfEmpty(Mono.error(new RuntimeException("Credit not found")))
       .map(existing -> creditMapper.updateEntity(existing, creditRequest))
       .doOnNext(this::updateCreditStatusIfNeeded)
-      .flatMap(creditRepository::save)
-      .map(credit -> {
-        invalidateCreditCaches(credit.getId(), credit.getCreditNumber(), credit.getCustomerId());
-        return creditMapper.toResponse(credit);
-      })
+      .flatMap(credit -> saveWithEvent(credit, CreditEventType.CREDIT_UPDATED))
+      .retryWhen(optimisticLockRetry())
+      .flatMap(credit -> refreshCreditCaches(List.of(credit)).thenReturn(credit))
+      .map(creditMapper::toResponse)
       .doOnSuccess(response -> log.debug("Credit updated with ID: {}", response.getId()))
       .doOnError(error -> log.error("Error updating credit {}: {}", id, error.getMessage()));
   }
@@ -152,40 +256,91 @@ public class CreditServiceImpl implements CreditService {
         String customerId = credit.getCustomerId();
         String creditNumber = credit.getCreditNumber();
 
-        return creditRepository.delete(credit)
-          .doOnSuccess(unused -> {
-            log.debug("Credit deleted");
-            // ✅ INVALIDACIÓN MANUAL
-            invalidateCreditCaches(id, creditNumber, customerId);
-          });
+        return withVersion(credit)
+          .flatMap(creditRepository::delete)
+          .then(outboxService.record(CreditEventType.CREDIT_DELETED, credit))
+          .as(transactionalOperator::transactional)
+          .doOnSuccess(unused -> log.debug("Credit deleted"))
+          .then(Mono.defer(() -> invalidateCreditCaches(id, creditNumber, customerId)));
       })
+      .retryWhen(optimisticLockRetry())
       .doOnError(error -> log.error("Error deleting credit {}: {}", id, error.getMessage()));
   }
 
   @Override
   public Flux<CreditResponse> getCreditsByActive(Boolean isActive) {
-    return creditRepository.findByIsActive(isActive)
-      .doOnNext(this::updateCreditStatusIfNeeded)
+    return creditRepository.streamByActive(isActive, null, listingCursorBatchSize)
+      .limitRate(listingCursorBatchSize)
       .map(creditMapper::toResponse)
       .doOnComplete(() -> log.debug("Active credits retrieved from DB"));
   }
 
   @Override
   public Flux<CreditResponse> getCreditsByActiveAndCustomer(Boolean isActive, String customerId) {
-    return creditRepository.findByIsActiveAndCustomerId(isActive, customerId)
-      .doOnNext(this::updateCreditStatusIfNeeded)
+    return creditRepository.streamByActive(isActive, customerId, listingCursorBatchSize)
+      .limitRate(listingCursorBatchSize)
       .map(creditMapper::toResponse)
       .doOnComplete(() -> log.debug("Credits active by customer retrieved from DB"));
   }
 
+  @Override
+  public Mono<CreditPage> getCreditsPage(Boolean isActive, String customerId, String cursor, Integer limit) {
+    // la validación del spec ya exige 1..500; se acota igual para llamadas que no pasan por el controller
+    int pageSize = Math.max(1, Math.min(Optional.ofNullable(limit).orElse(DEFAULT_PAGE_SIZE), maxPageSize));
+
+    // se pide un elemento extra para saber si hay página siguiente
+    return Mono.fromCallable(() -> decodeCursor(cursor))
+      .map(Optional::of)
+      .defaultIfEmpty(Optional.empty())
+      .flatMap(afterId -> creditRepository.findPage(isActive, customerId, afterId.orElse(null), pageSize + 1)
+        .collectList())
+      .map(credits -> {
+        boolean hasNext = credits.size() > pageSize;
+        List<Credit> items = hasNext ? credits.subList(0, pageSize) : credits;
+
+        CreditPage page = new CreditPage();
+        page.setItems(items.stream().map(creditMapper::toResponse).collect(Collectors.toList()));
+        if (hasNext) {
+          page.setNextCursor(encodeCursor(items.get(items.size() - 1).getId()));
+        }
+        return page;
+      })
+      .doOnSuccess(page -> log.debug("Credits page retrieved - size: {}, hasNext: {}",
+        page.getItems().size(), page.getNextCursor() != null));
+  }
+
+  private String encodeCursor(String creditId) {
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(creditId.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * @return el id codificado en el cursor, o null si no se envió cursor
+   */
+  private String decodeCursor(String cursor) {
+    if (cursor == null || cursor.isBlank()) {
+      return null;
+    }
+    try {
+      String creditId = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+      if (ObjectId.isValid(creditId)) {
+        return creditId;
+      }
+    } catch (IllegalArgumentException e) {
+      // se responde como cursor inválido
+    }
+    throw new ServerWebInputException("Invalid cursor: " + cursor);
+  }
+
   @Override
   public Mono<CreditResponse> deactivateCredit(String id) {
     return creditRepository.findById(id)
       .switchIfEmpty(Mono.error(new RuntimeException("Credit not found with id: " + id)))
       .flatMap(credit -> {
         credit.setActive(false);
-        return creditRepository.save(credit);
+        return saveWithEvent(credit, CreditEventType.CREDIT_DEACTIVATED);
       })
+      .retryWhen(optimisticLockRetry())
+      .flatMap(credit -> refreshCreditCaches(List.of(credit)).thenReturn(credit))
       .map(creditMapper::toResponse)
       .doOnSuccess(c -> log.debug("Credit {} deactivated", id))
       .doOnError(e -> log.error("Error deactivating credit {}: {}", id, e.getMessage()));
@@ -197,8 +352,10 @@ public class CreditServiceImpl implements CreditService {
       .switchIfEmpty(Mono.error(new RuntimeException("Credit not found with id: " + id)))
       .flatMap(credit -> {
         credit.setActive(true);
-        return creditRepository.save(credit);
+        return saveWithEvent(credit, CreditEventType.CREDIT_ACTIVATED);
       })
+      .retryWhen(optimisticLockRetry())
+      .flatMap(credit -> refreshCreditCaches(List.of(credit)).thenReturn(credit))
       .map(creditMapper::toResponse)
       .doOnSuccess(c -> log.debug("Credit {} activated", id))
       .doOnError(e -> log.error("Error activating credit {}: {}", id, e.getMessage()));
@@ -206,21 +363,31 @@ public class CreditServiceImpl implements CreditService {
 
   @Override
   public Mono<String> generateUniqueCreditNumber() {
-    String candidate = creditUtils.generateRandomCreditNumber();
-    return creditRepository.findByCreditNumber(candidate)
-      .flatMap(existing -> generateUniqueCreditNumber()) // si existe, intenta de nuevo
-      .switchIfEmpty(Mono.just(candidate)); // si no existe, úsalo
+    // Números únicos por construcción: no requiere consultar si ya existen
+    return creditNumberAllocator.nextCreditNumber();
   }
 
   @Override
   public Mono<PaymentProcessResponse> processPayment(String creditNumber, PaymentProcessRequest paymentRequest) {
+    return applyPayment(creditNumber, paymentRequest)
+      .doOnSuccess(response -> recordPaymentOutcome(PAYMENT_CHANNEL_SINGLE, response))
+      .doOnError(error -> recordPaymentError(PAYMENT_CHANNEL_SINGLE));
+  }
+
+  private Mono<PaymentProcessResponse> applyPayment(String creditNumber, PaymentProcessRequest paymentRequest) {
     log.debug("Processing installment payment for credit: {}, amount: {}",
       creditNumber, paymentRequest.getAmount());
 
+    // Un número mal formado no puede existir: se rechaza sin consultar Mongo ni el cache
+    if (!creditUtils.isValidCreditNumber(creditNumber)) {
+      return Mono.error(creditNotFound(creditNumber));
+    }
+
     return creditRepository.findByCreditNumber(creditNumber)
-      .switchIfEmpty(Mono.error(new RuntimeException("Credit not found with number: " + creditNumber)))
+      .switchIfEmpty(Mono.error(creditNotFound(creditNumber)))
       .doOnNext(this::updateCreditStatusIfNeeded)
       .flatMap(credit -> validateAndProcessInstallmentPayment(credit, paymentRequest))
+      .retryWhen(optimisticLockRetry())
       .doOnSuccess(response -> {
         if (response.getSuccess()) {
           log.info("Installment payment processed successfully for credit {}: paid {} - Remaining installments: {}",
@@ -232,16 +399,41 @@ public class CreditServiceImpl implements CreditService {
       .doOnError(error -> log.error("Error processing payment for credit {}: {}", creditNumber, error.getMessage()));
   }
 
+  @Override
+  public Flux<BatchPaymentResult> processPaymentBatch(Flux<BatchPaymentItem> payments) {
+    // Bloques acotados: como máximo un bloque en memoria mientras se escribe el anterior
+    return payments.index()
+      .buffer(paymentBatchChunkSize)
+      .concatMap(this::processPaymentChunk, 1)
+      .doOnNext(result -> recordPaymentOutcome(PAYMENT_CHANNEL_BATCH, result.getResult()))
+      .doOnError(error -> recordPaymentError(PAYMENT_CHANNEL_BATCH))
+      .doOnComplete(() -> log.info("Payment batch processed"));
+  }
+
   @Override
   public Mono<CreditBalanceResponse> getCreditBalance(String creditNumber) {
+    return getCreditBalanceSnapshot(creditNumber)
+      .map(CreditBalanceSnapshot::getBalance);
+  }
+
+  @Override
+  public Mono<CreditBalanceSnapshot> getCreditBalanceSnapshot(String creditNumber) {
     log.debug("Getting balance for credit: {}", creditNumber);
 
-    return creditRepository.findByCreditNumber(creditNumber)
-      .switchIfEmpty(Mono.error(new RuntimeException("Credit not found with number: " + creditNumber)))
-      .doOnNext(this::updateCreditStatusIfNeeded)
-      .map(this::buildInstallmentBalanceResponse)
-      .doOnSuccess(response -> log.debug("Balance retrieved for credit: {} - Progress: {}%",
-        creditNumber, response.getPaymentProgress()))
+    // Un número mal formado no puede existir: se rechaza sin consultar Mongo ni el cache
+    if (!creditUtils.isValidCreditNumber(creditNumber)) {
+      return Mono.error(creditNotFound(creditNumber));
+    }
+
+    return cacheService.getOrLoadVersioned(BALANCE + creditNumber, CreditBalanceSnapshot.class,
+        () -> creditRepository.findByCreditNumber(creditNumber)
+          .map(credit -> VersionedValue.of(
+            new CreditBalanceSnapshot(credit.getCustomerId(), buildInstallmentBalanceResponse(credit)),
+            versionOf(credit))),
+        BALANCE_TTL)
+      .switchIfEmpty(Mono.error(creditNotFound(creditNumber)))
+      .doOnSuccess(snapshot -> log.debug("Balance retrieved for credit: {} - Progress: {}%",
+        creditNumber, snapshot.getBalance().getPaymentProgress()))
       .doOnError(error -> log.error("Error getting balance for credit {}: {}", creditNumber, error.getMessage()));
   }
 
@@ -249,71 +441,88 @@ public class CreditServiceImpl implements CreditService {
   public Mono<ProductEligibilityResponse> checkCustomerEligibility(String customerId) {
     log.debug("Checking product eligibility for customer: {}", customerId);
 
-    return getOverdueCredits(customerId)
-      .collectList()
-      .map(overdueCredits -> buildEligibilityResponse(customerId, overdueCredits))
+    return cacheService.getOrLoad(ELIGIBILITY + customerId, ProductEligibilityResponse.class,
+        () -> getOverdueCredits(customerId)
+          .collectList()
+          .map(overdueCredits -> buildEligibilityResponse(customerId, overdueCredits)),
+        ELIGIBILITY_TTL)
       .doOnSuccess(response -> log.debug("Eligibility checked for customer: {} - Eligible: {}",
         customerId, response.getIsEligible()));
   }
 
   private Flux<OverdueProduct> getOverdueCredits(String customerId) {
-    return creditRepository.findByCustomerId(customerId)
-      .doOnNext(this::updateCreditStatusIfNeeded)
-      .filter(credit -> Boolean.TRUE.equals(credit.getIsOverdue()))
-      .map(this::mapCreditToOverdueProduct);
-  }
-
-  private <T> Mono<T> getCachedValue(String key, Class<T> valueType) {
-    return redisTemplate.opsForValue()
-      .get(key)
-      .cast(valueType)
-      .doOnNext(cached -> log.debug("REDIS CACHE HIT: {}", key))
-      .onErrorResume(error -> {
-        log.warn("Redis read error for key {}: {}", key, error.getMessage());
-        return Mono.empty(); // cache miss
-      });
+    // El predicado de morosidad se resuelve en Mongo con el índice customer_overdue_idx
+    LocalDate today = LocalDate.now();
+    return creditRepository.findOverdueByCustomerId(customerId, today)
+      .map(credit -> mapCreditToOverdueProduct(credit, today));
   }
 
-  private Mono<Boolean> setCachedValue(String key, Object value, Duration ttl) {
-    return redisTemplate.opsForValue()
-      .set(key, value, ttl)
-      .doOnSuccess(success -> {
-        if (success) {
-          log.debug("REDIS CACHE SET: {} (TTL: {})", key, ttl);
-        } else {
-          log.warn("Redis cache SET failed for key: {}", key);
-        }
-      })
-      .onErrorResume(error -> {
-        log.error("Redis write error for key {}: {}", key, error.getMessage());
-        return Mono.just(false);
-      });
+  /**
+   * Guarda el crédito y registra su evento en el outbox en la misma transacción
+   */
+  private Mono<Credit> saveWithEvent(Credit credit, CreditEventType eventType) {
+    return withVersion(credit)
+      .flatMap(creditRepository::save)
+      .flatMap(saved -> outboxService.record(eventType, saved).thenReturn(saved))
+      .as(transactionalOperator::transactional);
   }
 
-  private Mono<Boolean> setCachedValue(String key, Object value) {
-    return setCachedValue(key, value, MASTER_DATA_TTL);
+  /**
+   * Durante un despliegue progresivo las réplicas anteriores a @Version guardan documentos sin versión,
+   * después del backfill de arranque. Con versión null Spring Data trataría el crédito como nuevo
+   * y el insert fallaría por clave duplicada; se inicializa en 0, también en Mongo, antes de guardarlo.
+   */
+  private Mono<Credit> withVersion(Credit credit) {
+    if (credit.getId() == null || credit.getVersion() != null) {
+      return Mono.just(credit);
+    }
+    return creditRepository.initializeVersion(credit.getId())
+      .then(Mono.fromCallable(() -> {
+        credit.setVersion(0L);
+        return credit;
+      }));
   }
 
   // helpers para invalidar cache
-  private void invalidateCreditCaches(String creditId, String creditNumber, String customerId) {
-    Flux.just(
-        "credit:master:id:" + creditId,
-        "credit:master:number:" + creditNumber,
-        "balance:master:" + creditNumber,
-        "eligibility:master:" + customerId
-      )
-      .flatMap(redisTemplate::delete)
-      .doOnNext(deleted -> log.debug("Cache invalidated: {}", deleted))
-      .subscribe();
+
+  /**
+   * Tras un borrado las claves quedan marcadas como eliminadas durante MASTER_DATA_TTL:
+   * un write-through o una carga en curso ya no pueden revivir el crédito
+   */
+  private Mono<Void> invalidateCreditCaches(String creditId, String creditNumber, String customerId) {
+    return Mono.when(
+      cacheService.invalidate(deletedCreditVersions(creditId, creditNumber), MASTER_DATA_TTL),
+      cacheService.invalidate(customerKeys(customerId)));
   }
 
-  private void invalidateCustomerCaches(String customerId) {
-    Flux.just(
-        "eligibility:master:" + customerId
-      )
-      .flatMap(redisTemplate::delete)
-      .doOnNext(deleted -> log.debug("Customer cache invalidated: {}", deleted))
-      .subscribe();
+  /**
+   * Después de guardar: escribe los créditos ya mapeados y su balance en todas sus claves (write-through),
+   * o solo las invalida si el write-through está desactivado. En ambos casos con la versión guardada,
+   * para que un escritor o una carga con una versión anterior no la pise.
+   * La elegibilidad del cliente siempre se invalida.
+   */
+  private Mono<Void> refreshCreditCaches(Collection<Credit> credits) {
+    if (!writeThroughEnabled) {
+      return Mono.when(
+        cacheService.invalidate(creditVersions(credits), MASTER_DATA_TTL),
+        cacheService.invalidate(customerKeys(credits)));
+    }
+
+    Map<String, VersionedValue<?>> masterData = new HashMap<>();
+    Map<String, VersionedValue<?>> balances = new HashMap<>();
+    for (Credit credit : credits) {
+      long version = versionOf(credit);
+      CreditResponse response = creditMapper.toResponse(credit);
+      masterData.put(CREDIT_BY_ID + credit.getId(), VersionedValue.of(response, version));
+      masterData.put(CREDIT_BY_NUMBER + credit.getCreditNumber(), VersionedValue.of(response, version));
+      balances.put(BALANCE + credit.getCreditNumber(), VersionedValue.of(
+        new CreditBalanceSnapshot(credit.getCustomerId(), buildInstallmentBalanceResponse(credit)), version));
+    }
+
+    return Mono.when(
+      cacheService.setAll(masterData, MASTER_DATA_TTL),
+      cacheService.setAll(balances, BALANCE_TTL),
+      cacheService.invalidate(customerKeys(credits)));
   }
 
 
@@ -344,51 +553,229 @@ public class CreditServiceImpl implements CreditService {
   }
 
   private void updateCreditStatusIfNeeded(Credit credit) {
-    // Actualizar estado de morosidad automáticamente
+    // Solo en escrituras: las lecturas confían en el estado persistido por OverdueService
     credit.updateOverdueStatus();
   }
 
   private Mono<PaymentProcessResponse> validateAndProcessInstallmentPayment(Credit credit, PaymentProcessRequest request) {
-    BigDecimal paymentAmount = BigDecimal.valueOf(request.getAmount());
+    Money paymentAmount = toPaymentAmount(request.getAmount());
+
+    PaymentProcessResponse rejection = validateInstallmentPayment(credit, paymentAmount);
+    if (rejection != null) {
+      return Mono.just(rejection);
+    }
+
+    // Procesar el pago en memoria y aplicarlo con una actualización condicional atómica
+    int observedPaidInstallments = credit.getPaidInstallments();
+    boolean paymentProcessed = credit.processPayment(paymentAmount);
 
+    if (!paymentProcessed) {
+      return Mono.just(createInstallmentPaymentFailedResponse(credit.getId(), paymentAmount,
+        PaymentProcessResponse.ErrorCodeEnum.INVALID_AMOUNT, "Payment processing failed"));
+    }
+
+    return creditRepository.applyInstallmentPayment(credit, observedPaidInstallments)
+      .switchIfEmpty(Mono.error(new OptimisticLockingFailureException(
+        "Credit " + credit.getCreditNumber() + " was modified concurrently")))
+      .flatMap(savedCredit -> outboxService.record(CreditEventType.PAYMENT_PROCESSED, savedCredit)
+        .thenReturn(savedCredit))
+      .as(transactionalOperator::transactional)
+      .flatMap(savedCredit -> refreshCreditCaches(List.of(savedCredit)).thenReturn(savedCredit))
+      .map(savedCredit -> createInstallmentPaymentSuccessResponse(savedCredit, paymentAmount));
+  }
+
+  /**
+   * Los centavos fraccionarios se truncan: redondear hacia arriba podría completar una cuota que no se cubrió
+   */
+  private static Money toPaymentAmount(Double amount) {
+    return Money.of(amount, RoundingMode.DOWN);
+  }
+
+  /**
+   * Los ítems del lote no pasan por bean validation: el monto se valida acá, ítem por ítem
+   * @return el monto, o null si falta, no es finito o no llega a un centavo
+   */
+  private static Money toBatchPaymentAmount(Double amount) {
+    if (amount == null || !Double.isFinite(amount) || amount <= 0) {
+      return null;
+    }
+    try {
+      Money paymentAmount = toPaymentAmount(amount);
+      return paymentAmount.signum() > 0 ? paymentAmount : null;
+    } catch (ArithmeticException e) {
+      // no entra en centavos de long
+      return null;
+    }
+  }
+
+  /**
+   * Valida un pago de cuota contra el estado del crédito
+   * @return la respuesta de rechazo, o null si el pago es válido
+   */
+  private PaymentProcessResponse validateInstallmentPayment(Credit credit, Money paymentAmount) {
     // Validar estado del crédito
     if (!credit.isActive()) {
-      return Mono.just(createInstallmentPaymentFailedResponse(credit.getId(), paymentAmount,
-        PaymentProcessResponse.ErrorCodeEnum.CREDIT_INACTIVE, "Credit is not active"));
+      return createInstallmentPaymentFailedResponse(credit.getId(), paymentAmount,
+        PaymentProcessResponse.ErrorCodeEnum.CREDIT_INACTIVE, "Credit is not active");
     }
 
     // Validar monto positivo
-    if (paymentAmount.compareTo(BigDecimal.ZERO) <= 0) {
-      return Mono.just(createInstallmentPaymentFailedResponse(credit.getId(), paymentAmount,
-        PaymentProcessResponse.ErrorCodeEnum.INVALID_AMOUNT, "Payment amount must be greater than 0"));
+    if (paymentAmount.signum() <= 0) {
+      return createInstallmentPaymentFailedResponse(credit.getId(), paymentAmount,
+        PaymentProcessResponse.ErrorCodeEnum.INVALID_AMOUNT, "Payment amount must be greater than 0");
     }
 
     // Validar que el crédito no esté completamente pagado
     if (credit.getRemainingInstallments() == 0) {
-      return Mono.just(createInstallmentPaymentFailedResponse(credit.getId(), paymentAmount,
-        PaymentProcessResponse.ErrorCodeEnum.CREDIT_ALREADY_PAID, "Credit is already fully paid"));
+      return createInstallmentPaymentFailedResponse(credit.getId(), paymentAmount,
+        PaymentProcessResponse.ErrorCodeEnum.CREDIT_ALREADY_PAID, "Credit is already fully paid");
     }
 
     // Validar que el pago cubra la cuota mensual mínima
-    if (paymentAmount.compareTo(credit.getMonthlyPayment()) < 0) {
-      return Mono.just(createInstallmentPaymentFailedResponse(credit.getId(), paymentAmount,
+    if (paymentAmount.isLessThan(credit.getMonthlyPayment())) {
+      return createInstallmentPaymentFailedResponse(credit.getId(), paymentAmount,
         PaymentProcessResponse.ErrorCodeEnum.INSUFFICIENT_PAYMENT,
-        "Payment amount is less than monthly installment of " + credit.getMonthlyPayment()));
+        "Payment amount is less than monthly installment of " + credit.getMonthlyPayment());
     }
 
-    // Procesar el pago
-    boolean paymentProcessed = credit.processPayment(paymentAmount);
+    return null;
+  }
 
-    if (!paymentProcessed) {
-      return Mono.just(createInstallmentPaymentFailedResponse(credit.getId(), paymentAmount,
-        PaymentProcessResponse.ErrorCodeEnum.INVALID_AMOUNT, "Payment processing failed"));
+  /**
+   * Valida y aplica en memoria los pagos de un bloque, en orden, y los persiste con un bulk write.
+   * Si la transacción del bloque choca con otra escritura se repite desde la relectura de los créditos;
+   * los pagos de créditos cuya escritura no aplicó (modificación concurrente) se reprocesan uno a uno.
+   */
+  private Flux<BatchPaymentResult> processPaymentChunk(List<Tuple2<Long, BatchPaymentItem>> chunk) {
+    Set<String> creditNumbers = chunk.stream()
+      .map(item -> item.getT2().getCreditNumber())
+      .filter(creditUtils::isValidCreditNumber)
+      .collect(Collectors.toSet());
+
+    return creditRepository.findByCreditNumberIn(creditNumbers)
+      .collectMap(Credit::getCreditNumber)
+      .flatMap(credits -> {
+        Map<String, Integer> observedPaidInstallments = new HashMap<>();
+        List<BatchPaymentResult> results = new ArrayList<>(chunk.size());
+
+        for (Tuple2<Long, BatchPaymentItem> item : chunk) {
+          BatchPaymentItem payment = item.getT2();
+          results.add(toBatchPaymentResult(item.getT1(), payment,
+            applyPaymentInMemory(credits.get(payment.getCreditNumber()), payment, observedPaidInstallments)));
+        }
+
+        List<Credit> paidCredits = credits.values().stream()
+          .filter(credit -> observedPaidInstallments.containsKey(credit.getId()))
+          .collect(Collectors.toList());
+
+        // un evento por crédito con el estado tras todos sus pagos del bloque
+        return creditRepository.applyInstallmentPayments(paidCredits, observedPaidInstallments, UUID.randomUUID().toString())
+          .map(applied -> paidCredits.stream()
+            .filter(credit -> applied.contains(credit.getId()))
+            .collect(Collectors.toList()))
+          .flatMap(appliedCredits -> outboxService.recordAll(CreditEventType.PAYMENT_PROCESSED, appliedCredits)
+            .thenReturn(appliedCredits))
+          .as(transactionalOperator::transactional)
+          .map(appliedCredits -> Tuples.of(results, appliedCredits));
+      })
+      .retryWhen(optimisticLockRetry())
+      .flatMapMany(written -> {
+        Set<String> applied = written.getT2().stream().map(Credit::getId).collect(Collectors.toSet());
+        return refreshCreditCaches(written.getT2())
+          .thenMany(Flux.fromIterable(written.getT1()))
+          .concatMap(result -> Boolean.TRUE.equals(result.getResult().getSuccess())
+            && !applied.contains(result.getResult().getCreditId())
+            ? retryBatchPayment(result)
+            : Mono.just(result));
+      });
+  }
+
+  private PaymentProcessResponse applyPaymentInMemory(Credit credit, BatchPaymentItem payment,
+                                                      Map<String, Integer> observedPaidInstallments) {
+    // un ítem inválido recibe su resultado sin cortar el stream del lote
+    Money paymentAmount = toBatchPaymentAmount(payment.getAmount());
+    if (paymentAmount == null) {
+      PaymentProcessResponse rejection = createInstallmentPaymentFailedResponse(credit != null ? credit.getId() : null,
+        Money.ZERO, PaymentProcessResponse.ErrorCodeEnum.INVALID_AMOUNT, "Payment amount must be at least 0.01");
+      rejection.setRequestedAmount(payment.getAmount());
+      return rejection;
+    }
+    if (credit == null) {
+      return createInstallmentPaymentFailedResponse(null, paymentAmount,
+        PaymentProcessResponse.ErrorCodeEnum.CREDIT_NOT_FOUND, "Credit not found with number: " + payment.getCreditNumber());
     }
 
-    return creditRepository.save(credit)
-      .map(savedCredit -> createInstallmentPaymentSuccessResponse(savedCredit, paymentAmount));
+    PaymentProcessResponse rejection = validateInstallmentPayment(credit, paymentAmount);
+    if (rejection != null) {
+      return rejection;
+    }
+
+    observedPaidInstallments.putIfAbsent(credit.getId(), credit.getPaidInstallments());
+    if (!credit.processPayment(paymentAmount)) {
+      return createInstallmentPaymentFailedResponse(credit.getId(), paymentAmount,
+        PaymentProcessResponse.ErrorCodeEnum.INVALID_AMOUNT, "Payment processing failed");
+    }
+    return createInstallmentPaymentSuccessResponse(credit, paymentAmount);
+  }
+
+  private Mono<BatchPaymentResult> retryBatchPayment(BatchPaymentResult result) {
+    PaymentProcessRequest request = new PaymentProcessRequest();
+    request.setAmount(result.getResult().getRequestedAmount());
+
+    return applyPayment(result.getCreditNumber(), request)
+      .onErrorResume(error -> Mono.just(createInstallmentPaymentFailedResponse(result.getResult().getCreditId(),
+        toPaymentAmount(request.getAmount()), PaymentProcessResponse.ErrorCodeEnum.PROCESSING_ERROR, error.getMessage())))
+      .map(response -> {
+        result.setResult(response);
+        return result;
+      });
+  }
+
+  private BatchPaymentResult toBatchPaymentResult(long index, BatchPaymentItem payment, PaymentProcessResponse response) {
+    BatchPaymentResult result = new BatchPaymentResult();
+    result.setIndex(index);
+    result.setCreditNumber(payment.getCreditNumber());
+    result.setReference(payment.getReference());
+    result.setResult(response);
+    return result;
+  }
+
+  /**
+   * Reintenta la lectura-validación-escritura cuando otra escritura concurrente modificó el crédito
+   */
+  private Retry optimisticLockRetry() {
+    return Retry.backoff(OPTIMISTIC_LOCK_RETRIES, Duration.ofMillis(10))
+      .filter(CreditServiceImpl::isWriteConflict)
+      .doBeforeRetry(signal -> writeConflictCounter("retried").increment())
+      .onRetryExhaustedThrow((spec, signal) -> {
+        writeConflictCounter("exhausted").increment();
+        return signal.failure();
+      });
+  }
+
+  /**
+   * La escritura condicional no encontró la versión leída, o Mongo abortó la transacción
+   * por un WriteConflict con otra transacción en curso (etiqueta TransientTransactionError).
+   * En ambos casos no se aplicó nada y se puede repetir desde la lectura.
+   */
+  static boolean isWriteConflict(Throwable error) {
+    if (error instanceof OptimisticLockingFailureException || error instanceof MongoTransactionException) {
+      return true;
+    }
+    for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+      if (cause instanceof MongoException
+        && ((MongoException) cause).hasErrorLabel(MongoException.TRANSIENT_TRANSACTION_ERROR_LABEL)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static RuntimeException creditNotFound(String creditNumber) {
+    return new RuntimeException("Credit not found with number: " + creditNumber);
   }
 
-  private PaymentProcessResponse createInstallmentPaymentSuccessResponse(Credit credit, BigDecimal requestedAmount) {
+  private PaymentProcessResponse createInstallmentPaymentSuccessResponse(Credit credit, Money requestedAmount) {
     PaymentProcessResponse response = new PaymentProcessResponse();
     response.setSuccess(true);
     response.setCreditId(credit.getId());
@@ -402,7 +789,7 @@ public class CreditServiceImpl implements CreditService {
     return response;
   }
 
-  private PaymentProcessResponse createInstallmentPaymentFailedResponse(String creditId, BigDecimal requestedAmount,
+  private PaymentProcessResponse createInstallmentPaymentFailedResponse(String creditId, Money requestedAmount,
                                                                         PaymentProcessResponse.ErrorCodeEnum errorCode, String errorMessage) {
     PaymentProcessResponse response = new PaymentProcessResponse();
     response.setSuccess(false);
@@ -424,7 +811,7 @@ public class CreditServiceImpl implements CreditService {
     response.setNextPaymentDueDate(credit.getNextPaymentDueDate());
     response.setPaidInstallments(credit.getPaidInstallments());
     response.setRemainingInstallments(credit.getRemainingInstallments());
-    response.setPaymentProgress(credit.getPaymentProgress().doubleValue());
+    response.setPaymentProgress(credit.getPaymentProgress());
     response.setIsOverdue(credit.getIsOverdue());
     response.setOverdueDays(credit.getOverdueDays());
     response.setStatus(CreditBalanceResponse.StatusEnum.fromValue(credit.getStatus().name()));
@@ -446,12 +833,12 @@ public class CreditServiceImpl implements CreditService {
     return response;
   }
 
-  private OverdueProduct mapCreditToOverdueProduct(Credit credit) {
+  private OverdueProduct mapCreditToOverdueProduct(OverdueCreditView credit, LocalDate today) {
     OverdueProduct product = new OverdueProduct();
     product.setProductId(credit.getId());
     product.setProductNumber(credit.getCreditNumber());
     product.setProductType(OverdueProduct.ProductTypeEnum.CREDIT);
-    product.setOverdueDays(credit.getOverdueDays());
+    product.setOverdueDays((int) credit.getNextPaymentDueDate().until(today, ChronoUnit.DAYS));
     product.setOverdueAmount(credit.getMonthlyPayment().doubleValue());
     return product;
   }
@@ -0,0 +1,145 @@
+package com.bootcamp.ntt.credit_service.service.Impl;
+
+import com.bootcamp.ntt.credit_service.client.dto.customer.CustomerTypeResponse;
+import com.bootcamp.ntt.credit_service.dto.CustomerEvent;
+import com.bootcamp.ntt.credit_service.entity.CustomerTypeProjection;
+import com.bootcamp.ntt.credit_service.exception.CustomerNotFoundException;
+import com.bootcamp.ntt.credit_service.repository.CustomerTypeProjectionRepository;
+import com.bootcamp.ntt.credit_service.service.CustomerTypeService;
+import com.bootcamp.ntt.credit_service.service.ExternalServiceWrapper;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Réplica del tipo de cliente alimentada por los eventos de customer-service.
+ * La creación de créditos la lee en lugar de llamar por HTTP; solo los clientes desconocidos van a customer-service.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CustomerTypeServiceImpl implements CustomerTypeService {
+
+  private final CustomerTypeProjectionRepository projectionRepository;
+  private final ReactiveMongoTemplate mongoTemplate;
+  private final ExternalServiceWrapper externalServiceWrapper;
+  private final ObjectMapper objectMapper;
+
+  @Value("${credit.customer-events.apply-timeout:5s}")
+  private Duration applyTimeout;
+
+  // cuánto se conserva el tombstone de un cliente eliminado
+  @Value("${credit.customer-events.tombstone-retention:30d}")
+  private Duration tombstoneRetention;
+
+  @KafkaListener(
+    topics = "${credit.customer-events.topic:customer.events}",
+    groupId = "${credit.customer-events.group-id:credit-service-customer-types}",
+    autoStartup = "${credit.customer-events.enabled:true}")
+  public void onCustomerEvent(String message) {
+    CustomerEvent event;
+    try {
+      event = objectMapper.readValue(message, CustomerEvent.class);
+    } catch (JsonProcessingException e) {
+      log.warn("Discarding unreadable customer event: {}", e.getMessage());
+      return;
+    }
+
+    // se bloquea el hilo del consumidor para confirmar el offset solo después de persistir
+    applyEvent(event).block(applyTimeout);
+  }
+
+  @Override
+  public Mono<CustomerTypeResponse> getCustomerType(String customerId) {
+    return projectionRepository.findById(customerId)
+      .flatMap(projection -> Boolean.TRUE.equals(projection.getDeleted())
+        ? Mono.<CustomerTypeResponse>error(new CustomerNotFoundException("Customer not found: " + customerId))
+        : Mono.just(toResponse(projection)))
+      .doOnNext(response -> log.debug("Customer type served from local projection: {}", customerId))
+      .switchIfEmpty(Mono.defer(() -> externalServiceWrapper.getCustomerTypeWithCircuitBreaker(customerId)
+        .flatMap(response -> insertFallback(customerId, response.getCustomerType())
+          .onErrorResume(error -> {
+            log.warn("Could not store customer type projection for {}: {}", customerId, error.getMessage());
+            return Mono.empty();
+          })
+          .thenReturn(response))));
+  }
+
+  @Override
+  public Mono<Void> applyEvent(CustomerEvent event) {
+    String customerId = event.getCustomerId();
+    if (customerId == null) {
+      log.warn("Ignoring customer event without customerId: {}", event.getEventType());
+      return Mono.empty();
+    }
+
+    Instant occurredAt = Optional.ofNullable(event.getOccurredAt()).orElseGet(Instant::now);
+    if (CustomerEvent.CUSTOMER_DELETED.equals(event.getEventType())) {
+      // a igual instante gana el borrado (lte)
+      return upsertIfNewer(customerId,
+          Criteria.where("_id").is(customerId).and("updatedAt").lte(occurredAt),
+          new Update().set("deleted", true).set("expireAt", occurredAt.plus(tombstoneRetention))
+            .unset("customerType").set("updatedAt", occurredAt))
+        .doOnSuccess(unused -> log.debug("Customer type projection marked deleted: {}", customerId));
+    }
+
+    if (event.getCustomerType() == null) {
+      return Mono.empty();
+    }
+    return upsertIfNewer(customerId,
+        Criteria.where("_id").is(customerId).and("updatedAt").lt(occurredAt),
+        new Update().set("customerType", event.getCustomerType()).set("deleted", false).unset("expireAt")
+          .set("updatedAt", occurredAt))
+      .doOnSuccess(unused -> log.debug("Customer type projection updated: {} -> {}", customerId, event.getCustomerType()));
+  }
+
+  /**
+   * Solo escribe si el evento es más reciente que lo guardado. Si lo guardado es más nuevo,
+   * el upsert intenta insertar el mismo _id y falla con clave duplicada: el evento atrasado se descarta.
+   */
+  private Mono<Void> upsertIfNewer(String customerId, Criteria olderThanEvent, Update update) {
+    return mongoTemplate.upsert(
+        Query.query(olderThanEvent),
+        update,
+        CustomerTypeProjection.class)
+      .then()
+      .onErrorResume(DuplicateKeyException.class, error -> {
+        log.debug("Ignoring stale customer event for {}", customerId);
+        return Mono.empty();
+      });
+  }
+
+  /**
+   * Valor obtenido por HTTP: solo se inserta si el cliente no existe (ni como tombstone) y con
+   * updatedAt = EPOCH, para que cualquier evento real posterior lo reemplace
+   */
+  private Mono<Void> insertFallback(String customerId, String customerType) {
+    return mongoTemplate.upsert(
+        Query.query(Criteria.where("_id").is(customerId)),
+        new Update().setOnInsert("customerType", customerType).setOnInsert("deleted", false)
+          .setOnInsert("updatedAt", Instant.EPOCH),
+        CustomerTypeProjection.class)
+      .then();
+  }
+
+  private CustomerTypeResponse toResponse(CustomerTypeProjection projection) {
+    CustomerTypeResponse response = new CustomerTypeResponse();
+    response.setId(projection.getId());
+    response.setCustomerType(projection.getCustomerType());
+    return response;
+  }
+}
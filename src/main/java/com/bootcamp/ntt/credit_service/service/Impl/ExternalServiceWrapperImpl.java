@@ -4,23 +4,44 @@ import com.bootcamp.ntt.credit_service.client.CardServiceClient;
 import com.bootcamp.ntt.credit_service.client.CustomerServiceClient;
 import com.bootcamp.ntt.credit_service.client.dto.card.CustomerEligibilityResponse;
 import com.bootcamp.ntt.credit_service.client.dto.customer.CustomerTypeResponse;
+import com.bootcamp.ntt.credit_service.exception.CardServiceUnavailableException;
 import com.bootcamp.ntt.credit_service.exception.CustomerServiceUnavailableException;
 import com.bootcamp.ntt.credit_service.service.ExternalServiceWrapper;
+import com.bootcamp.ntt.credit_service.utils.HedgeRouting;
+import com.bootcamp.ntt.credit_service.utils.HedgingPolicy;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
 import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
 import io.github.resilience4j.reactor.timelimiter.TimeLimiterOperator;
 import io.github.resilience4j.timelimiter.TimeLimiter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
+import reactor.netty.internal.shaded.reactor.pool.PoolAcquirePendingLimitException;
+import reactor.netty.internal.shaded.reactor.pool.PoolAcquireTimeoutException;
+import reactor.util.context.Context;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class ExternalServiceWrapperImpl implements ExternalServiceWrapper {
 
+  private static final String CUSTOMER_SERVICE = "customer-service";
+  private static final String CARD_SERVICE = "card-service";
+
   private final CustomerServiceClient customerServiceClient;
   private final CardServiceClient cardServiceClient;
 
@@ -30,29 +51,41 @@ public class ExternalServiceWrapperImpl implements ExternalServiceWrapper {
   private final TimeLimiter customerServiceTimeLimiter;
   private final TimeLimiter cardServiceTimeLimiter;
 
+  private final Bulkhead customerServiceBulkhead;
+  private final Bulkhead cardServiceBulkhead;
+
+  private final HedgingPolicy customerServiceHedgingPolicy;
+  private final HedgingPolicy cardServiceHedgingPolicy;
+
+  private final MeterRegistry meterRegistry;
+
   /**
-   * Llama al customer-service con circuit breaker y timeout de 2s
+   * Llama al customer-service con bulkhead, hedging opcional, circuit breaker y timeout de 2s
    */
   @Override
   public Mono<CustomerTypeResponse> getCustomerTypeWithCircuitBreaker(String customerId) {
-    return customerServiceClient.getCustomerType(customerId)
+    return hedged(CUSTOMER_SERVICE, customerServiceHedgingPolicy, () -> customerServiceClient.getCustomerType(customerId)
+      .transformDeferred(BulkheadOperator.of(customerServiceBulkhead)))
       .transformDeferred(CircuitBreakerOperator.of(customerServiceCircuitBreaker))
       .transformDeferred(TimeLimiterOperator.of(customerServiceTimeLimiter))
+      .transform(call -> timeDownstreamCall(CUSTOMER_SERVICE, call))
       .doOnError(error -> log.warn("Customer service call failed for customerId={}: {}",
         customerId, error.getMessage()))
       .onErrorResume(this::handleCustomerServiceError);
   }
 
   /**
-   * Llama al card-service para verificar elegibilidad con circuit breaker y timeout
+   * Llama al card-service para verificar elegibilidad con bulkhead, hedging opcional, circuit breaker y timeout
    */
   @Override
   public Mono<CustomerEligibilityResponse> getCustomerEligibilityWithCircuitBreaker(String customerId, ServerWebExchange exchange) {
     log.debug("Calling card service for customer eligibility: {}", customerId);
 
-    return cardServiceClient.getCustomerProductEligibility(customerId, exchange)
+    return hedged(CARD_SERVICE, cardServiceHedgingPolicy, () -> cardServiceClient.getCustomerProductEligibility(customerId, exchange)
+      .transformDeferred(BulkheadOperator.of(cardServiceBulkhead)))
       .transformDeferred(CircuitBreakerOperator.of(cardServiceCircuitBreaker))
       .transformDeferred(TimeLimiterOperator.of(cardServiceTimeLimiter))
+      .transform(call -> timeDownstreamCall(CARD_SERVICE, call))
       .doOnSuccess(response -> log.debug("Card service eligibility response for customer {}: eligible={}",
         customerId, response.isEligible()))
       .doOnError(error -> log.warn("Card service call failed for customerId={}: {}",
@@ -62,15 +95,31 @@ public class ExternalServiceWrapperImpl implements ExternalServiceWrapper {
 
   private Mono<CustomerTypeResponse> handleCustomerServiceError(Throwable error) {
     log.error("Customer service unavailable - blocking credit creation for security: {}", error.getMessage());
+    recordFallback(CUSTOMER_SERVICE, "reject", error);
 
     return Mono.error(new CustomerServiceUnavailableException(
       "Customer validation service temporarily unavailable. Credit creation blocked for security. Please try again later."));
   }
 
+  /**
+   * Sin capacidad local (bulkhead lleno o pool de conexiones agotado) no se sabe nada del cliente:
+   * se responde servicio no disponible en vez de marcarlo como no elegible
+   */
   private Mono<CustomerEligibilityResponse> handleCardServiceError(String customerId, Throwable error) {
+    if (isCapacityRejection(error)) {
+      log.warn("Card service capacity exhausted for customer {} - rejecting as unavailable: {}",
+        customerId, error.getMessage());
+      recordFallback(CARD_SERVICE, "unavailable", error);
+
+      return Mono.error(new CardServiceUnavailableException(
+        "Eligibility service is at capacity. Please try again later."));
+    }
+
     log.error("Card service unavailable for customer {} - using conservative fallback: {}",
       customerId, error.getMessage());
 
+    recordFallback(CARD_SERVICE, "not-eligible", error);
+
     CustomerEligibilityResponse fallbackResponse = new CustomerEligibilityResponse();
     fallbackResponse.setEligible(false);
 
@@ -79,4 +128,126 @@ public class ExternalServiceWrapperImpl implements ExternalServiceWrapper {
 
     return Mono.just(fallbackResponse);
   }
+
+  /**
+   * Si la llamada no respondió tras el retraso de la política y queda presupuesto, envía un duplicado
+   * a otra instancia (HedgeRouting: el load balancer excluye la que eligió la primaria)
+   * y se queda con la primera respuesta.
+   * Cada intento toma su propio permiso del bulkhead; el circuit breaker ve una sola llamada.
+   * Un hedge fallido no afecta a la llamada original.
+   */
+  private <T> Mono<T> hedged(String service, HedgingPolicy policy, Supplier<Mono<T>> call) {
+    if (!policy.isEnabled()) {
+      return call.get();
+    }
+
+    return Mono.defer(() -> {
+      policy.onPrimaryRequest();
+      long start = System.nanoTime();
+      HedgeRouting routing = HedgeRouting.primary();
+      Mono<T> primary = call.get()
+        .contextWrite(Context.of(HedgeRouting.KEY, routing))
+        .doOnSuccess(response -> policy.recordLatency(System.nanoTime() - start))
+        // si ganó el hedge la primaria era lenta: lo transcurrido es una cota inferior de su latencia
+        .doOnCancel(() -> policy.recordLatency(System.nanoTime() - start));
+
+      Optional<Duration> delay = policy.hedgeDelay();
+      if (delay.isEmpty()) {
+        return primary;
+      }
+
+      Mono<T> hedge = Mono.delay(delay.get())
+        .flatMap(tick -> {
+          if (!policy.tryAcquireHedge()) {
+            recordHedge(service, "budget-exhausted");
+            return Mono.<T>never();
+          }
+          recordHedge(service, "sent");
+          long hedgeStart = System.nanoTime();
+          // el load balancer evita la instancia que eligió la primaria
+          return call.get()
+            .contextWrite(Context.of(HedgeRouting.KEY, routing.forHedge()))
+            .doOnSuccess(response -> {
+              policy.recordLatency(System.nanoTime() - hedgeStart);
+              recordHedge(service, "won");
+            })
+            .onErrorResume(error -> Mono.never());
+        });
+
+      return Mono.firstWithSignal(primary, hedge);
+    });
+  }
+
+  private void recordHedge(String service, String outcome) {
+    Counter.builder("credit.downstream.hedges")
+      .description("Hedged requests sent to downstream services")
+      .tag("service", service)
+      .tag("outcome", outcome)
+      .register(meterRegistry)
+      .increment();
+  }
+
+  /**
+   * Latencia de la llamada completa (incluye bulkhead, hedging, circuit breaker y timeout), por servicio y resultado
+   */
+  private <T> Mono<T> timeDownstreamCall(String service, Mono<T> call) {
+    return Mono.defer(() -> {
+      Timer.Sample sample = Timer.start(meterRegistry);
+      return call
+        .doOnSuccess(response -> sample.stop(downstreamTimer(service, "success")))
+        .doOnError(error -> sample.stop(downstreamTimer(service, failureOutcome(error))))
+        .doOnCancel(() -> sample.stop(downstreamTimer(service, "cancelled")));
+    });
+  }
+
+  private Timer downstreamTimer(String service, String outcome) {
+    return Timer.builder("credit.downstream.calls")
+      .description("Latency of calls to downstream services")
+      .tag("service", service)
+      .tag("outcome", outcome)
+      .publishPercentileHistogram()
+      .register(meterRegistry);
+  }
+
+  private void recordFallback(String service, String fallback, Throwable error) {
+    Counter.builder("credit.downstream.fallbacks")
+      .description("Downstream failures answered by a fallback")
+      .tag("service", service)
+      .tag("fallback", fallback)
+      .tag("cause", failureOutcome(error))
+      .register(meterRegistry)
+      .increment();
+  }
+
+  private static String failureOutcome(Throwable error) {
+    if (error instanceof TimeoutException) {
+      return "timeout";
+    }
+    if (error instanceof CallNotPermittedException) {
+      return "circuit-open";
+    }
+    if (error instanceof BulkheadFullException) {
+      return "bulkhead-full";
+    }
+    if (isPoolExhausted(error)) {
+      return "pool-exhausted";
+    }
+    return "error";
+  }
+
+  private static boolean isCapacityRejection(Throwable error) {
+    return error instanceof BulkheadFullException || isPoolExhausted(error);
+  }
+
+  /**
+   * WebClient envuelve el rechazo del pool de conexiones (WebClientRequestException), por eso se recorre la causa
+   */
+  private static boolean isPoolExhausted(Throwable error) {
+    for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+      if (cause instanceof PoolAcquireTimeoutException || cause instanceof PoolAcquirePendingLimitException) {
+        return true;
+      }
+    }
+    return false;
+  }
 }
@@ -0,0 +1,155 @@
+package com.bootcamp.ntt.credit_service.service.Impl;
+
+import com.bootcamp.ntt.credit_service.exception.BusinessRuleException;
+import com.bootcamp.ntt.credit_service.service.IdempotencyService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import static com.bootcamp.ntt.credit_service.utils.CacheKeys.IDEMPOTENCY;
+import static com.bootcamp.ntt.credit_service.utils.CacheKeys.IDEMPOTENCY_TTL;
+
+/**
+ * Store de idempotencia en Redis.
+ * La clave se reserva con SETNX como "en curso" y luego se reemplaza por la respuesta.
+ * Junto a la respuesta se guarda la huella de la petición: un reintento con otra huella se rechaza.
+ * Si la ejecución falla la clave se libera para que el cliente pueda reintentar.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class IdempotencyServiceImpl implements IdempotencyService {
+
+  private static final String IN_PROGRESS = "IN_PROGRESS";
+  private static final String FINGERPRINT_SUFFIX = ":fingerprint";
+  private static final Duration POLL_INTERVAL = Duration.ofMillis(50);
+
+  private final ReactiveRedisTemplate<String, Object> redisTemplate;
+
+  @Value("${credit.idempotency.lock-ttl:30s}")
+  private Duration lockTtl;
+
+  @Value("${credit.idempotency.wait-timeout:10s}")
+  private Duration waitTimeout;
+
+  // Duplicados en el mismo nodo comparten la ejecución sin consultar Redis
+  private final Map<String, Mono<Object>> inFlight = new ConcurrentHashMap<>();
+
+  @Override
+  public <T> Mono<T> execute(String scope, String idempotencyKey, String fingerprint, Class<T> resultType,
+                             Supplier<Mono<T>> action) {
+    if (idempotencyKey == null || idempotencyKey.isBlank()) {
+      return Mono.defer(action);
+    }
+
+    String key = IDEMPOTENCY + scope + ":" + idempotencyKey;
+    // un duplicado con otra huella no comparte la ejecución: espera la respuesta guardada y se rechaza
+    return Mono.defer(() -> inFlight.computeIfAbsent(key + "#" + fingerprint,
+        k -> executeOnce(key, fingerprint, resultType, action)
+          .cast(Object.class)
+          .doFinally(signal -> inFlight.remove(k))
+          .cache()))
+      .cast(resultType);
+  }
+
+  private <T> Mono<T> executeOnce(String key, String fingerprint, Class<T> resultType, Supplier<Mono<T>> action) {
+    return redisTemplate.opsForValue()
+      .setIfAbsent(key, IN_PROGRESS, lockTtl)
+      .onErrorResume(error -> {
+        // mismo criterio que el cache: si Redis no responde se procesa sin protección
+        log.error("Idempotency store unavailable for key {}: {}", key, error.getMessage());
+        return Mono.just(true);
+      })
+      .flatMap(acquired -> Boolean.TRUE.equals(acquired)
+        ? runAndStore(key, fingerprint, action)
+        : awaitResult(key, fingerprint, resultType, action));
+  }
+
+  /**
+   * La huella se guarda antes de ejecutar: cuando la respuesta es visible su huella ya lo es
+   */
+  private <T> Mono<T> runAndStore(String key, String fingerprint, Supplier<Mono<T>> action) {
+    return storeFingerprint(key, fingerprint)
+      .then(Mono.defer(action))
+      .flatMap(result -> redisTemplate.opsForValue()
+        .set(key, result, IDEMPOTENCY_TTL)
+        .onErrorResume(error -> {
+          log.error("Could not store idempotent response for key {}: {}", key, error.getMessage());
+          return Mono.just(false);
+        })
+        .thenReturn(result))
+      .onErrorResume(error -> release(key).then(Mono.error(error)));
+  }
+
+  private <T> Mono<T> awaitResult(String key, String fingerprint, Class<T> resultType, Supplier<Mono<T>> action) {
+    log.debug("Idempotency key {} already in use, waiting for stored response", key);
+
+    return redisTemplate.opsForValue()
+      .get(key)
+      .map(Optional::of)
+      .defaultIfEmpty(Optional.empty())
+      .flatMap(value -> {
+        if (value.isEmpty()) {
+          // la primera ejecución falló o su reserva expiró
+          return executeOnce(key, fingerprint, resultType, action);
+        }
+        if (resultType.isInstance(value.get())) {
+          return replay(key, fingerprint, resultType.cast(value.get()));
+        }
+        return Mono.<T>empty();
+      })
+      .repeatWhenEmpty(attempts -> attempts.delayElements(POLL_INTERVAL))
+      .timeout(waitTimeout, Mono.error(new BusinessRuleException(
+        "IDEMPOTENCY_KEY_IN_PROGRESS",
+        "A request with the same Idempotency-Key is still being processed")));
+  }
+
+  /**
+   * Sin huella guardada (respuesta de una réplica anterior) se reproduce la respuesta como antes
+   */
+  private <T> Mono<T> replay(String key, String fingerprint, T response) {
+    return redisTemplate.opsForValue()
+      .get(key + FINGERPRINT_SUFFIX)
+      .map(Optional::of)
+      .defaultIfEmpty(Optional.empty())
+      .flatMap(stored -> {
+        if (fingerprint != null && stored.isPresent() && !fingerprint.equals(stored.get())) {
+          log.warn("Idempotency key {} reused with a different request", key);
+          return Mono.error(new BusinessRuleException(
+            "IDEMPOTENCY_KEY_REUSED",
+            "The Idempotency-Key was already used with a different request"));
+        }
+        log.info("Replaying stored response for idempotency key {}", key);
+        return Mono.just(response);
+      });
+  }
+
+  private Mono<Boolean> storeFingerprint(String key, String fingerprint) {
+    if (fingerprint == null) {
+      return Mono.just(false);
+    }
+    return redisTemplate.opsForValue()
+      .set(key + FINGERPRINT_SUFFIX, fingerprint, IDEMPOTENCY_TTL)
+      .onErrorResume(error -> {
+        log.error("Could not store request fingerprint for key {}: {}", key, error.getMessage());
+        return Mono.just(false);
+      });
+  }
+
+  private Mono<Long> release(String key) {
+    return redisTemplate.delete(key, key + FINGERPRINT_SUFFIX)
+      .onErrorResume(error -> {
+        log.error("Could not release idempotency key {}: {}", key, error.getMessage());
+        return Mono.just(0L);
+      });
+  }
+}
@@ -0,0 +1,88 @@
+package com.bootcamp.ntt.credit_service.service.Impl;
+
+import com.bootcamp.ntt.credit_service.entity.JobLease;
+import com.bootcamp.ntt.credit_service.service.JobLockService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Lease en Mongo (colección job_leases) para que los procesos programados corran en una sola réplica.
+ * Se toma con un upsert condicionado a que el lease esté vencido o sea propio: si lo tiene otra réplica,
+ * el upsert intenta insertar el mismo _id y falla con clave duplicada.
+ * Los vencimientos usan el reloj de cada réplica; el lease debe ser mucho mayor que su desfase (NTP).
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class JobLockServiceImpl implements JobLockService {
+
+  // renovaciones por lease: una renovación demorada no alcanza a dejarlo vencer
+  private static final int RENEWALS_PER_LEASE = 3;
+
+  private final ReactiveMongoTemplate mongoTemplate;
+
+  private final String owner = UUID.randomUUID().toString();
+
+  @Override
+  public <T> Mono<T> runExclusively(String job, Duration lease, Mono<T> work) {
+    return acquire(job, lease)
+      .flatMap(acquired -> {
+        if (!acquired) {
+          log.debug("Job {} is running on another replica, skipping", job);
+          return Mono.<T>empty();
+        }
+        return work
+          .takeUntilOther(leaseLost(job, lease))
+          .doFinally(signal -> release(job).subscribe());
+      });
+  }
+
+  private Mono<Boolean> acquire(String job, Duration lease) {
+    Instant now = Instant.now();
+    Query available = Query.query(Criteria.where("_id").is(job)
+      .orOperator(Criteria.where("lockedUntil").lte(now), Criteria.where("owner").is(owner)));
+
+    return mongoTemplate.upsert(available,
+        new Update().set("owner", owner).set("lockedUntil", now.plus(lease)).set("lockedAt", now),
+        JobLease.class)
+      .thenReturn(true)
+      .onErrorResume(DuplicateKeyException.class, error -> Mono.just(false));
+  }
+
+  /**
+   * Renueva el lease periódicamente; emite si otra réplica se quedó con él
+   */
+  private Mono<Long> leaseLost(String job, Duration lease) {
+    return Flux.interval(lease.dividedBy(RENEWALS_PER_LEASE))
+      .concatMap(tick -> mongoTemplate.updateFirst(
+          Query.query(Criteria.where("_id").is(job).and("owner").is(owner)),
+          new Update().set("lockedUntil", Instant.now().plus(lease)),
+          JobLease.class)
+        .map(result -> result.getMatchedCount()))
+      .filter(matched -> matched == 0)
+      .next()
+      .doOnNext(lost -> log.warn("Lost the lease for job {}, cancelling this run", job));
+  }
+
+  private Mono<Void> release(String job) {
+    return mongoTemplate.updateFirst(
+        Query.query(Criteria.where("_id").is(job).and("owner").is(owner)),
+        new Update().set("lockedUntil", Instant.now()),
+        JobLease.class)
+      .doOnError(error -> log.warn("Could not release the lease for job {}: {}", job, error.getMessage()))
+      .onErrorResume(error -> Mono.empty())
+      .then();
+  }
+}
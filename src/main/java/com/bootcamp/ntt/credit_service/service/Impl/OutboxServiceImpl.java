@@ -0,0 +1,168 @@
+package com.bootcamp.ntt.credit_service.service.Impl;
+
+import com.bootcamp.ntt.credit_service.dto.CreditEvent;
+import com.bootcamp.ntt.credit_service.entity.Credit;
+import com.bootcamp.ntt.credit_service.entity.CreditEventType;
+import com.bootcamp.ntt.credit_service.entity.OutboxEvent;
+import com.bootcamp.ntt.credit_service.mapper.CreditMapper;
+import com.bootcamp.ntt.credit_service.repository.OutboxEventRepository;
+import com.bootcamp.ntt.credit_service.service.JobLockService;
+import com.bootcamp.ntt.credit_service.service.OutboxService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.bootcamp.ntt.credit_service.utils.CacheKeys.versionOf;
+
+/**
+ * Outbox transaccional: los eventos se guardan junto con el cambio y un relay los publica en Kafka.
+ * Entrega al menos una vez; los consumidores deduplican por eventId.
+ * El relay corre en una sola réplica a la vez (lease en job_leases) y publica por orden de _id, que es
+ * solo aproximado: el ObjectId se genera antes del commit y en cada réplica, así que no es el orden de commit.
+ * Tampoco hay orden entre topics. El orden por crédito lo da creditVersion: los consumidores descartan
+ * los eventos con una versión que ya aplicaron.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OutboxServiceImpl implements OutboxService {
+
+  private static final String RELAY_JOB = "outbox-relay";
+
+  private final OutboxEventRepository outboxRepository;
+  private final KafkaTemplate<String, String> kafkaTemplate;
+  private final CreditMapper creditMapper;
+  private final ObjectMapper objectMapper;
+  private final JobLockService jobLockService;
+
+  @Value("${credit.outbox.batch-size:200}")
+  private int batchSize;
+
+  @Value("${credit.outbox.topic-prefix:credit.}")
+  private String topicPrefix;
+
+  @Value("${credit.outbox.lock-lease:30s}")
+  private Duration lockLease;
+
+  private final AtomicBoolean running = new AtomicBoolean(false);
+
+  @Scheduled(
+    initialDelayString = "${credit.outbox.initial-delay-ms:10000}",
+    fixedDelayString = "${credit.outbox.relay-interval-ms:1000}")
+  public void scheduledRelay() {
+    if (!running.compareAndSet(false, true)) {
+      return;
+    }
+
+    jobLockService.runExclusively(RELAY_JOB, lockLease, relayPending())
+      .doFinally(signal -> running.set(false))
+      .subscribe(
+        published -> {
+          if (published > 0) {
+            log.debug("Outbox relay published {} events", published);
+          }
+        },
+        error -> log.error("Outbox relay failed: {}", error.getMessage()));
+  }
+
+  @Override
+  public Mono<Void> record(CreditEventType eventType, Credit credit) {
+    return recordAll(eventType, List.of(credit));
+  }
+
+  @Override
+  public Mono<Void> recordAll(CreditEventType eventType, Collection<Credit> credits) {
+    if (credits.isEmpty()) {
+      return Mono.empty();
+    }
+
+    return Flux.fromIterable(credits)
+      .map(credit -> toOutboxEvent(eventType, credit))
+      .collectList()
+      .flatMapMany(outboxRepository::insert)
+      .then();
+  }
+
+  @Override
+  public Mono<Long> relayPending() {
+    // se siguen drenando lotes mientras vengan completos
+    return relayBatch()
+      .expand(published -> published == batchSize ? relayBatch() : Mono.empty())
+      .reduce(0L, Long::sum);
+  }
+
+  private Mono<Long> relayBatch() {
+    return outboxRepository.findAllByOrderByIdAsc(PageRequest.of(0, batchSize))
+      .collectList()
+      .flatMap(events -> {
+        if (events.isEmpty()) {
+          return Mono.just(0L);
+        }
+
+        // un envío a la vez, en orden de _id: el siguiente sale recién cuando Kafka confirmó el anterior.
+        // Ante un fallo se detiene y solo se borra el prefijo confirmado; el resto se reintenta en orden
+        return Flux.fromIterable(events)
+          .concatMap(this::send, 1)
+          .onErrorResume(error -> {
+            log.warn("Outbox relay stopped at first failed send: {}", error.getMessage());
+            return Flux.empty();
+          })
+          .collectList()
+          .flatMap(published -> outboxRepository.deleteAllById(published)
+            .thenReturn((long) published.size()));
+      });
+  }
+
+  /**
+   * El ack de Kafka llega en el hilo de red del producer: el siguiente send no puede salir desde ahí
+   * (bloquearía esperando metadata), por eso cada envío se suscribe en boundedElastic
+   */
+  private Mono<String> send(OutboxEvent event) {
+    return Mono.defer(() -> Mono.fromFuture(kafkaTemplate.send(topicPrefix + event.getEventType().getTopic(),
+          event.getCreditNumber(), event.getPayload())
+        .completable()))
+      .subscribeOn(Schedulers.boundedElastic())
+      .thenReturn(event.getId());
+  }
+
+  private OutboxEvent toOutboxEvent(CreditEventType eventType, Credit credit) {
+    // el _id solo aproxima el orden de registro; el orden por crédito lo da la versión
+    String eventId = new ObjectId().toHexString();
+    Instant occurredAt = Instant.now();
+    long creditVersion = eventType == CreditEventType.CREDIT_DELETED ? versionOf(credit) + 1 : versionOf(credit);
+    CreditEvent event = new CreditEvent(eventId, eventType, occurredAt, creditVersion, creditMapper.toResponse(credit));
+
+    String payload;
+    try {
+      payload = objectMapper.writeValueAsString(event);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Could not serialize credit event " + eventId, e);
+    }
+
+    return OutboxEvent.builder()
+      .id(eventId)
+      .eventType(eventType)
+      .creditId(credit.getId())
+      .creditNumber(credit.getCreditNumber())
+      .creditVersion(creditVersion)
+      .payload(payload)
+      .createdAt(occurredAt)
+      .build();
+  }
+}
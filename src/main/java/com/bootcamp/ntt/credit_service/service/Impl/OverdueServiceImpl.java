@@ -0,0 +1,144 @@
+package com.bootcamp.ntt.credit_service.service.Impl;
+
+import com.bootcamp.ntt.credit_service.entity.Credit;
+import com.bootcamp.ntt.credit_service.entity.CreditEventType;
+import com.bootcamp.ntt.credit_service.entity.CreditStatus;
+import com.bootcamp.ntt.credit_service.entity.JobCheckpoint;
+import com.bootcamp.ntt.credit_service.repository.CreditRepository;
+import com.bootcamp.ntt.credit_service.repository.JobCheckpointRepository;
+import com.bootcamp.ntt.credit_service.service.CacheService;
+import com.bootcamp.ntt.credit_service.service.JobLockService;
+import com.bootcamp.ntt.credit_service.service.OutboxService;
+import com.bootcamp.ntt.credit_service.service.OverdueService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import static com.bootcamp.ntt.credit_service.utils.CacheKeys.MASTER_DATA_TTL;
+import static com.bootcamp.ntt.credit_service.utils.CacheKeys.creditVersions;
+import static com.bootcamp.ntt.credit_service.utils.CacheKeys.customerKeys;
+
+/**
+ * Proceso en segundo plano que persiste el estado de morosidad.
+ * Cada corrida revisa, en lotes, todos los créditos sin marcar con vencimiento anterior a hoy:
+ * también los que vuelven a ser candidatos con un vencimiento antiguo (reactivados, o aún atrasados
+ * tras ponerse parcialmente al día). El checkpoint solo sirve para reanudar una corrida interrumpida.
+ * Corre en una sola réplica a la vez (lease en job_leases).
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OverdueServiceImpl implements OverdueService {
+
+  private static final String CHECKPOINT_ID = "overdue-engine";
+
+  private final CreditRepository creditRepository;
+  private final JobCheckpointRepository checkpointRepository;
+  private final CacheService cacheService;
+  private final OutboxService outboxService;
+  private final TransactionalOperator transactionalOperator;
+  private final JobLockService jobLockService;
+
+  @Value("${credit.overdue.batch-size:500}")
+  private int batchSize;
+
+  @Value("${credit.overdue.lock-lease:2m}")
+  private Duration lockLease;
+
+  private final AtomicBoolean running = new AtomicBoolean(false);
+
+  @Scheduled(
+    initialDelayString = "${credit.overdue.initial-delay-ms:30000}",
+    fixedDelayString = "${credit.overdue.scan-interval-ms:300000}")
+  public void scheduledScan() {
+    if (!running.compareAndSet(false, true)) {
+      log.debug("Overdue scan still running, skipping this tick");
+      return;
+    }
+
+    jobLockService.runExclusively(CHECKPOINT_ID, lockLease, markOverdueCredits())
+      .doFinally(signal -> running.set(false))
+      .subscribe(
+        updated -> log.info("Overdue scan finished - credits marked overdue: {}", updated),
+        error -> log.error("Overdue scan failed: {}", error.getMessage()));
+  }
+
+  @Override
+  public Mono<Long> markOverdueCredits() {
+    LocalDate today = LocalDate.now();
+
+    // una corrida completa deja el checkpoint sin fecha: la siguiente empieza desde el inicio
+    return checkpointRepository.findById(CHECKPOINT_ID)
+      .map(checkpoint -> Optional.ofNullable(checkpoint.getLastProcessedDate()))
+      .defaultIfEmpty(Optional.empty())
+      .flatMapMany(resumeFrom -> creditRepository.findNewlyOverdue(resumeFrom.orElse(null), today))
+      .buffer(batchSize)
+      .concatMap(batch -> markBatch(batch, today))
+      .reduce(0L, Long::sum)
+      .flatMap(updated -> saveCheckpoint(null).thenReturn(updated));
+  }
+
+  private Mono<Long> markBatch(List<Credit> batch, LocalDate today) {
+    List<String> ids = batch.stream().map(Credit::getId).collect(Collectors.toList());
+    // los lotes vienen ordenados por vencimiento: el último es hasta donde se avanzó
+    LocalDate reached = batch.get(batch.size() - 1).getNextPaymentDueDate();
+
+    return markAndRecord(ids, today)
+      .doOnNext(marked -> log.debug("Marked {} credits overdue (due up to {})", marked.size(), reached))
+      .flatMap(marked -> Mono.when(
+          cacheService.invalidate(creditVersions(marked), MASTER_DATA_TTL),
+          cacheService.invalidate(customerKeys(marked)))
+        .then(saveCheckpoint(reached))
+        .thenReturn((long) marked.size()));
+  }
+
+  /**
+   * Marca los créditos y registra un CREDIT_OVERDUE por cada uno en la misma transacción:
+   * lo leído dentro de la transacción es exactamente lo que se actualiza
+   * @return créditos marcados, con la versión que quedó guardada
+   */
+  private Mono<List<Credit>> markAndRecord(List<String> ids, LocalDate today) {
+    return creditRepository.findOverdueCandidates(ids, today)
+      .collectList()
+      .flatMap(candidates -> {
+        if (candidates.isEmpty()) {
+          return Mono.just(candidates);
+        }
+        List<String> candidateIds = candidates.stream().map(Credit::getId).collect(Collectors.toList());
+        return creditRepository.markOverdue(candidateIds, today)
+          .flatMap(updated -> outboxService.recordAll(CreditEventType.CREDIT_OVERDUE, markedOverdue(candidates)))
+          .thenReturn(candidates);
+      })
+      .as(transactionalOperator::transactional);
+  }
+
+  private static List<Credit> markedOverdue(List<Credit> candidates) {
+    Instant now = Instant.now();
+    candidates.forEach(credit -> {
+      credit.setIsOverdue(true);
+      credit.setStatus(CreditStatus.OVERDUE);
+      credit.setUpdatedAt(now);
+      credit.setVersion(credit.getVersion() == null ? 1L : credit.getVersion() + 1);
+    });
+    return candidates;
+  }
+
+  /**
+   * @param processedDate vencimiento hasta donde avanzó la corrida en curso, o null al terminarla
+   */
+  private Mono<JobCheckpoint> saveCheckpoint(LocalDate processedDate) {
+    return checkpointRepository.save(new JobCheckpoint(CHECKPOINT_ID, processedDate, Instant.now()));
+  }
+}
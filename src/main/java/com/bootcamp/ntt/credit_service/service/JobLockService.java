@@ -0,0 +1,14 @@
+package com.bootcamp.ntt.credit_service.service;
+
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+public interface JobLockService {
+
+  /**
+   * Ejecuta work solo si esta réplica obtiene el lease del proceso; vacío si lo tiene otra.
+   * El lease se renueva mientras work corre y se libera al terminar; si se pierde, work se cancela.
+   */
+  <T> Mono<T> runExclusively(String job, Duration lease, Mono<T> work);
+}
@@ -0,0 +1,23 @@
+package com.bootcamp.ntt.credit_service.service;
+
+import com.bootcamp.ntt.credit_service.entity.Credit;
+import com.bootcamp.ntt.credit_service.entity.CreditEventType;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+
+public interface OutboxService {
+
+  /**
+   * Registra el evento en el outbox. Debe ejecutarse dentro de la transacción del cambio del crédito.
+   */
+  Mono<Void> record(CreditEventType eventType, Credit credit);
+
+  Mono<Void> recordAll(CreditEventType eventType, Collection<Credit> credits);
+
+  /**
+   * Publica en Kafka los eventos pendientes, por orden de _id, y borra los confirmados
+   * @return cantidad de eventos publicados
+   */
+  Mono<Long> relayPending();
+}
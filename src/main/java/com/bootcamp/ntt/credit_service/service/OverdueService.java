@@ -0,0 +1,13 @@
+package com.bootcamp.ntt.credit_service.service;
+
+import reactor.core.publisher.Mono;
+
+public interface OverdueService {
+
+  /**
+   * Marca como vencidos los créditos activos con cuotas pendientes cuyo vencimiento ya pasó.
+   * Si la corrida anterior quedó interrumpida, la reanuda desde su checkpoint.
+   * @return cantidad de créditos actualizados
+   */
+  Mono<Long> markOverdueCredits();
+}
@@ -1,9 +1,134 @@
 package com.bootcamp.ntt.credit_service.utils;
 
+import com.bootcamp.ntt.credit_service.entity.Credit;
+
 import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 public class CacheKeys {
   public static final Duration MASTER_DATA_TTL = Duration.ofHours(1);
   public static final Duration BALANCE_TTL = Duration.ofMinutes(15);
   public static final Duration ELIGIBILITY_TTL = Duration.ofMinutes(30);
+  public static final Duration IDEMPOTENCY_TTL = Duration.ofHours(24);
+
+  public static final String CREDIT_BY_ID = "credit:master:id:";
+  public static final String CREDIT_BY_NUMBER = "credit:master:number:";
+  public static final String BALANCE = "balance:master:";
+  public static final String ELIGIBILITY = "eligibility:master:";
+  public static final String IDEMPOTENCY = "idempotency:";
+
+  // Canal pub/sub para invalidar el cache L1 de las demás réplicas
+  public static final String INVALIDATION_CHANNEL = "credit:cache:invalidation";
+
+  // Familias de claves para etiquetar métricas
+  private static final String FAMILY_CREDIT_BY_ID = "credit-by-id";
+  private static final String FAMILY_CREDIT_BY_NUMBER = "credit-by-number";
+  private static final String FAMILY_BALANCE = "balance";
+  private static final String FAMILY_ELIGIBILITY = "eligibility";
+  private static final String FAMILY_IDEMPOTENCY = "idempotency";
+  private static final String FAMILY_OTHER = "other";
+  public static final List<String> FAMILIES = List.of(FAMILY_CREDIT_BY_ID, FAMILY_CREDIT_BY_NUMBER, FAMILY_BALANCE,
+    FAMILY_ELIGIBILITY, FAMILY_IDEMPOTENCY, FAMILY_OTHER);
+
+  // Versión cacheada de cada clave, usada para descartar escrituras atrasadas
+  public static final String VERSION_SUFFIX = ":version";
+  // Versión de un crédito eliminado: ninguna escritura posterior la supera
+  public static final long DELETED_VERSION = Long.MAX_VALUE;
+
+  private CacheKeys() {
+  }
+
+  public static String[] creditKeys(String creditId, String creditNumber, String customerId) {
+    return new String[]{
+      CREDIT_BY_ID + creditId,
+      CREDIT_BY_NUMBER + creditNumber,
+      BALANCE + creditNumber,
+      ELIGIBILITY + customerId
+    };
+  }
+
+  /**
+   * Claves de varios créditos, sin repetir, para invalidarlas en un solo DEL
+   */
+  public static String[] creditKeys(Collection<Credit> credits) {
+    return credits.stream()
+      .flatMap(credit -> Arrays.stream(creditKeys(credit.getId(), credit.getCreditNumber(), credit.getCustomerId())))
+      .distinct()
+      .toArray(String[]::new);
+  }
+
+  public static String versionKey(String key) {
+    return key + VERSION_SUFFIX;
+  }
+
+  public static long versionOf(Credit credit) {
+    return credit.getVersion() == null ? 0L : credit.getVersion();
+  }
+
+  /**
+   * Claves de datos maestros (id, número y balance) de cada crédito con su versión actual
+   */
+  public static Map<String, Long> creditVersions(Collection<Credit> credits) {
+    Map<String, Long> versions = new LinkedHashMap<>();
+    for (Credit credit : credits) {
+      long version = versionOf(credit);
+      versions.put(CREDIT_BY_ID + credit.getId(), version);
+      versions.put(CREDIT_BY_NUMBER + credit.getCreditNumber(), version);
+      versions.put(BALANCE + credit.getCreditNumber(), version);
+    }
+    return versions;
+  }
+
+  /**
+   * Claves de datos maestros de un crédito eliminado, marcadas para que nada las vuelva a escribir
+   */
+  public static Map<String, Long> deletedCreditVersions(String creditId, String creditNumber) {
+    Map<String, Long> versions = new LinkedHashMap<>();
+    versions.put(CREDIT_BY_ID + creditId, DELETED_VERSION);
+    versions.put(CREDIT_BY_NUMBER + creditNumber, DELETED_VERSION);
+    versions.put(BALANCE + creditNumber, DELETED_VERSION);
+    return versions;
+  }
+
+  /**
+   * Claves de elegibilidad de los clientes dueños de los créditos, sin repetir
+   */
+  public static String[] customerKeys(Collection<Credit> credits) {
+    return credits.stream()
+      .flatMap(credit -> Arrays.stream(customerKeys(credit.getCustomerId())))
+      .distinct()
+      .toArray(String[]::new);
+  }
+
+  /**
+   * Familia de una clave para etiquetar métricas, sin el id (cardinalidad acotada)
+   */
+  public static String family(String key) {
+    if (key.startsWith(CREDIT_BY_ID)) {
+      return FAMILY_CREDIT_BY_ID;
+    }
+    if (key.startsWith(CREDIT_BY_NUMBER)) {
+      return FAMILY_CREDIT_BY_NUMBER;
+    }
+    if (key.startsWith(BALANCE)) {
+      return FAMILY_BALANCE;
+    }
+    if (key.startsWith(ELIGIBILITY)) {
+      return FAMILY_ELIGIBILITY;
+    }
+    if (key.startsWith(IDEMPOTENCY)) {
+      return FAMILY_IDEMPOTENCY;
+    }
+    return FAMILY_OTHER;
+  }
+
+  public static String[] customerKeys(String customerId) {
+    return new String[]{
+      ELIGIBILITY + customerId
+    };
+  }
 }
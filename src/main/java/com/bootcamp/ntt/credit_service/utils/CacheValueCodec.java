@@ -0,0 +1,125 @@
+package com.bootcamp.ntt.credit_service.utils;
+
+import com.bootcamp.ntt.credit_service.dto.CreditBalanceSnapshot;
+import com.bootcamp.ntt.credit_service.model.CreditBalanceResponse;
+import com.bootcamp.ntt.credit_service.model.CreditResponse;
+import com.bootcamp.ntt.credit_service.model.PaymentProcessResponse;
+import com.bootcamp.ntt.credit_service.model.ProductEligibilityResponse;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import com.fasterxml.jackson.dataformat.smile.SmileParser;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Codec binario para los valores del cache: cabecera de 3 bytes (marca, versión, tipo) + cuerpo Smile sin su cabecera propia.
+ * El tipo se identifica por un id del registro en lugar del nombre de clase que escribía el JSON con default typing.
+ * Lee también los valores JSON anteriores, así que se puede desplegar con el cache poblado;
+ * ver RedisConfig para el orden en que se activa la escritura Smile.
+ */
+public class CacheValueCodec implements RedisSerializer<Object> {
+
+  public static final byte MAGIC = (byte) 0xCE;
+  public static final byte VERSION = 1;
+  private static final int HEADER_LENGTH = 3;
+
+  // El id de cada tipo es parte del formato: solo se agregan tipos al final, nunca se reordenan
+  private static final List<Class<?>> TYPE_REGISTRY = List.of(
+    String.class,
+    CreditResponse.class,
+    CreditBalanceResponse.class,
+    CreditBalanceSnapshot.class,
+    ProductEligibilityResponse.class,
+    PaymentProcessResponse.class
+  );
+
+  private final RedisSerializer<Object> legacySerializer;
+  private final boolean writeBinary;
+  private final Map<Class<?>, Byte> typeIds = new HashMap<>();
+  private final ObjectWriter[] writers = new ObjectWriter[TYPE_REGISTRY.size()];
+  private final ObjectReader[] readers = new ObjectReader[TYPE_REGISTRY.size()];
+
+  /**
+   * @param legacySerializer serializador JSON anterior, para leer valores viejos y tipos fuera del registro
+   * @param writeBinary false escribe con el serializador anterior (rollback), pero sigue leyendo ambos formatos
+   */
+  public CacheValueCodec(RedisSerializer<Object> legacySerializer, boolean writeBinary) {
+    this.legacySerializer = legacySerializer;
+    this.writeBinary = writeBinary;
+
+    ObjectMapper smileMapper = new ObjectMapper(SmileFactory.builder()
+      .disable(SmileGenerator.Feature.WRITE_HEADER)
+      .disable(SmileParser.Feature.REQUIRE_HEADER)
+      .build());
+    smileMapper.registerModule(new JavaTimeModule());
+    // un nodo con una versión anterior del modelo debe poder leer valores con campos nuevos
+    smileMapper.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    for (int i = 0; i < TYPE_REGISTRY.size(); i++) {
+      Class<?> type = TYPE_REGISTRY.get(i);
+      typeIds.put(type, (byte) i);
+      writers[i] = smileMapper.writerFor(type);
+      readers[i] = smileMapper.readerFor(type);
+    }
+  }
+
+  @Override
+  public byte[] serialize(Object value) throws SerializationException {
+    if (value == null) {
+      return new byte[0];
+    }
+
+    Byte typeId = typeIds.get(value.getClass());
+    if (!writeBinary || typeId == null) {
+      return legacySerializer.serialize(value);
+    }
+
+    try {
+      byte[] body = writers[typeId].writeValueAsBytes(value);
+      byte[] encoded = new byte[HEADER_LENGTH + body.length];
+      encoded[0] = MAGIC;
+      encoded[1] = VERSION;
+      encoded[2] = typeId;
+      System.arraycopy(body, 0, encoded, HEADER_LENGTH, body.length);
+      return encoded;
+    } catch (IOException e) {
+      throw new SerializationException("Could not encode cache value of type " + value.getClass().getName(), e);
+    }
+  }
+
+  @Override
+  public Object deserialize(byte[] bytes) throws SerializationException {
+    if (bytes == null || bytes.length == 0) {
+      return null;
+    }
+    // los valores JSON empiezan con un carácter imprimible, nunca con la marca binaria
+    if (bytes[0] != MAGIC) {
+      return legacySerializer.deserialize(bytes);
+    }
+    if (bytes.length < HEADER_LENGTH || bytes[1] != VERSION) {
+      throw new SerializationException("Unsupported cache value version: " + (bytes.length > 1 ? bytes[1] : -1));
+    }
+
+    int typeId = bytes[2];
+    if (typeId < 0 || typeId >= readers.length) {
+      throw new SerializationException("Unknown cache value type id: " + typeId);
+    }
+
+    try {
+      return readers[typeId].readValue(bytes, HEADER_LENGTH, bytes.length - HEADER_LENGTH);
+    } catch (IOException e) {
+      throw new SerializationException("Could not decode cache value " + Arrays.toString(Arrays.copyOf(bytes, HEADER_LENGTH)), e);
+    }
+  }
+}
@@ -2,17 +2,56 @@ package com.bootcamp.ntt.credit_service.utils;
 
 import org.springframework.stereotype.Component;
 
-import java.security.SecureRandom;
-
 @Component
 public class CreditUtils {
-  private static final SecureRandom random = new SecureRandom();
+  private static final String CREDIT_NUMBER_PREFIX = "CR-";
+  private static final int SEQUENCE_DIGITS = 10;
+  private static final int LEGACY_DIGITS = 4;
+  public static final long MAX_SEQUENCE = 9_999_999_999L;
+
+  /**
+   * Formatea una secuencia como número de crédito: CR- + 10 dígitos + dígito verificador (Luhn)
+   */
+  public String formatCreditNumber(long sequence) {
+    if (sequence <= 0 || sequence > MAX_SEQUENCE) {
+      throw new IllegalArgumentException("Credit number sequence out of range: " + sequence);
+    }
+    String digits = String.format("%0" + SEQUENCE_DIGITS + "d", sequence);
+    return CREDIT_NUMBER_PREFIX + digits + luhnCheckDigit(digits);
+  }
+
+  /**
+   * Valida un número de crédito: formato actual con dígito verificador o formato anterior CR- + 4 dígitos
+   */
+  public boolean isValidCreditNumber(String creditNumber) {
+    if (creditNumber == null || !creditNumber.startsWith(CREDIT_NUMBER_PREFIX)) {
+      return false;
+    }
+    String digits = creditNumber.substring(CREDIT_NUMBER_PREFIX.length());
+    if (!digits.chars().allMatch(c -> c >= '0' && c <= '9')) {
+      return false;
+    }
+    if (digits.length() == LEGACY_DIGITS) {
+      return true;
+    }
+    return digits.length() == SEQUENCE_DIGITS + 1
+      && digits.charAt(SEQUENCE_DIGITS) - '0' == luhnCheckDigit(digits.substring(0, SEQUENCE_DIGITS));
+  }
 
-  public String generateRandomCreditNumber() {
-    StringBuilder sb = new StringBuilder();
-    for (int i = 0; i < 4; i++) {
-      sb.append(random.nextInt(10));
+  private int luhnCheckDigit(String digits) {
+    int sum = 0;
+    boolean doubleDigit = true;
+    for (int i = digits.length() - 1; i >= 0; i--) {
+      int digit = digits.charAt(i) - '0';
+      if (doubleDigit) {
+        digit *= 2;
+        if (digit > 9) {
+          digit -= 9;
+        }
+      }
+      sum += digit;
+      doubleDigit = !doubleDigit;
     }
-    return "CR-" + sb;
+    return (10 - sum % 10) % 10;
   }
 }
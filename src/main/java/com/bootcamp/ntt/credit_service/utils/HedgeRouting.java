@@ -0,0 +1,40 @@
+package com.bootcamp.ntt.credit_service.utils;
+
+/**
+ * Pista para el load balancer que acompaña a cada intento de una llamada con hedging (contexto de Reactor
+ * y atributo de la petición). El balanceador anota qué instancia eligió para la primaria
+ * y el hedge la excluye, así no espera en la misma instancia lenta.
+ */
+public final class HedgeRouting {
+
+  public static final String KEY = HedgeRouting.class.getName();
+
+  private final HedgeRouting primary;
+  private volatile String chosenInstance;
+
+  private HedgeRouting(HedgeRouting primary) {
+    this.primary = primary;
+  }
+
+  public static HedgeRouting primary() {
+    return new HedgeRouting(null);
+  }
+
+  /**
+   * Pista para el hedge de esta llamada: excluye la instancia que haya elegido la primaria
+   */
+  public HedgeRouting forHedge() {
+    return new HedgeRouting(this);
+  }
+
+  /**
+   * Instancia a evitar; null en la primaria o si aún no eligió ninguna
+   */
+  public String getExcludedInstance() {
+    return primary == null ? null : primary.chosenInstance;
+  }
+
+  public void onInstanceChosen(String instance) {
+    this.chosenInstance = instance;
+  }
+}
@@ -0,0 +1,96 @@
+package com.bootcamp.ntt.credit_service.utils;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Decide cuándo enviar una petición duplicada (hedge) a un servicio externo.
+ * El retraso es un percentil de las últimas latencias observadas (ventana circular)
+ * y cada hedge consume un token de un presupuesto que solo se recarga con peticiones primarias,
+ * así los duplicados no superan budgetRatio del tráfico ni multiplican la carga durante una caída.
+ */
+public final class HedgingPolicy {
+
+  // cada cuántas muestras se recalcula el percentil
+  private static final int RECOMPUTE_EVERY = 32;
+
+  private final boolean enabled;
+  private final double percentile;
+  private final int minSamples;
+  private final long minDelayNanos;
+  private final long maxDelayNanos;
+  private final double budgetRatio;
+  private final double maxTokens;
+
+  private final long[] window;
+  private long recorded;
+  private long delayNanos;
+  private long delayComputedAt = -1;
+  private double tokens;
+
+  public HedgingPolicy(boolean enabled, double percentile, int windowSize, int minSamples,
+                       Duration minDelay, Duration maxDelay, double budgetRatio, int maxTokens) {
+    if (percentile <= 0 || percentile > 1 || windowSize < 1 || budgetRatio < 0) {
+      throw new IllegalArgumentException("Invalid hedging settings");
+    }
+    this.enabled = enabled;
+    this.percentile = percentile;
+    this.minSamples = Math.min(minSamples, windowSize);
+    this.minDelayNanos = minDelay.toNanos();
+    this.maxDelayNanos = Math.max(minDelay.toNanos(), maxDelay.toNanos());
+    this.budgetRatio = budgetRatio;
+    this.maxTokens = maxTokens;
+    this.window = new long[windowSize];
+    this.tokens = maxTokens;
+  }
+
+  public static HedgingPolicy disabled() {
+    return new HedgingPolicy(false, 0.95, 1, 1, Duration.ZERO, Duration.ZERO, 0, 0);
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Retraso antes del hedge; vacío mientras no haya suficientes muestras
+   */
+  public synchronized Optional<Duration> hedgeDelay() {
+    if (recorded < minSamples) {
+      return Optional.empty();
+    }
+    if (delayComputedAt < 0 || recorded - delayComputedAt >= RECOMPUTE_EVERY) {
+      int size = (int) Math.min(recorded, window.length);
+      long[] samples = Arrays.copyOf(window, size);
+      Arrays.sort(samples);
+      long value = size == 0 ? 0 : samples[(int) Math.ceil(percentile * size) - 1];
+      delayNanos = Math.max(minDelayNanos, Math.min(maxDelayNanos, value));
+      delayComputedAt = recorded;
+    }
+    return Optional.of(Duration.ofNanos(delayNanos));
+  }
+
+  public synchronized void recordLatency(long latencyNanos) {
+    window[(int) (recorded % window.length)] = latencyNanos;
+    recorded++;
+  }
+
+  /**
+   * Cada petición primaria recarga budgetRatio tokens
+   */
+  public synchronized void onPrimaryRequest() {
+    tokens = Math.min(maxTokens, tokens + budgetRatio);
+  }
+
+  /**
+   * Consume un token del presupuesto; false si está agotado
+   */
+  public synchronized boolean tryAcquireHedge() {
+    if (tokens < 1) {
+      return false;
+    }
+    tokens -= 1;
+    return true;
+  }
+}
@@ -0,0 +1,78 @@
+package com.bootcamp.ntt.credit_service.config;
+
+import com.bootcamp.ntt.credit_service.utils.HedgeRouting;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.RequestData;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.ServiceInstanceListSuppliers;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class HedgeAwareLoadBalancerTest {
+
+  private static final URI URL = URI.create("http://customer-service/api/v1/customers/c-1/type");
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void hedgeSkipsTheInstanceChosenForItsPrimary() {
+    ServiceInstanceListSupplier supplier = ServiceInstanceListSuppliers.from("customer-service",
+      instance("a", 8081), instance("b", 8082), instance("c", 8083));
+    ObjectProvider<ServiceInstanceListSupplier> provider = mock(ObjectProvider.class);
+    when(provider.getIfAvailable(any())).thenReturn(supplier);
+    HedgeAwareLoadBalancer loadBalancer = new HedgeAwareLoadBalancer(provider, "customer-service");
+
+    for (int i = 0; i < 10; i++) {
+      HedgeRouting primary = HedgeRouting.primary();
+      ServiceInstance primaryInstance = loadBalancer.choose(request(primary)).block().getServer();
+      ServiceInstance hedgeInstance = loadBalancer.choose(request(primary.forHedge())).block().getServer();
+
+      assertNotEquals(primaryInstance.getPort(), hedgeInstance.getPort());
+    }
+  }
+
+  @Test
+  void hedgeRoutingTravelsFromTheReactorContextToTheRequestAttributes() {
+    HedgeRouting routing = HedgeRouting.primary();
+    AtomicReference<ClientRequest> sent = new AtomicReference<>();
+
+    WebClientConfig.hedgeRoutingAttribute()
+      .filter(ClientRequest.create(HttpMethod.GET, URL).build(), request -> {
+        sent.set(request);
+        return Mono.just(ClientResponse.create(HttpStatus.OK).build());
+      })
+      .contextWrite(Context.of(HedgeRouting.KEY, routing))
+      .block();
+
+    assertSame(routing, sent.get().attribute(HedgeRouting.KEY).orElse(null));
+  }
+
+  private static DefaultRequest<RequestDataContext> request(HedgeRouting routing) {
+    ClientRequest clientRequest = ClientRequest.create(HttpMethod.GET, URL)
+      .attribute(HedgeRouting.KEY, routing)
+      .build();
+    return new DefaultRequest<>(new RequestDataContext(new RequestData(clientRequest)));
+  }
+
+  private static ServiceInstance instance(String id, int port) {
+    return new DefaultServiceInstance(id, "customer-service", "localhost", port, false);
+  }
+}
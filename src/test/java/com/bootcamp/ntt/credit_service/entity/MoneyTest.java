@@ -0,0 +1,104 @@
+package com.bootcamp.ntt.credit_service.entity;
+
+import com.bootcamp.ntt.credit_service.config.MongoConfig;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import javax.validation.Validation;
+import javax.validation.Validator;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MoneyTest {
+
+  @Test
+  void convertsDoublesLikeBigDecimalValueOf() {
+    double[] amounts = {0.0, 0.01, 0.1, 1.005, 12.34, 1249.999, 1250.0, 1250.005, -3.335, 99999.99, 1e13 + 0.5};
+    for (double amount : amounts) {
+      for (RoundingMode mode : new RoundingMode[]{RoundingMode.HALF_UP, RoundingMode.DOWN}) {
+        BigDecimal expected = BigDecimal.valueOf(amount).setScale(Money.SCALE, mode);
+        assertEquals(expected, Money.of(amount, mode).toBigDecimal(), amount + " " + mode);
+      }
+    }
+  }
+
+  @Test
+  void dividesWithHalfUpLikeTheInstallmentCalculation() {
+    long[] amounts = {15_000_00, 10_000_01, 5_000_06, 100_000_00, 7_777_77, -10_000_06};
+    for (long minor : amounts) {
+      BigDecimal expected = BigDecimal.valueOf(minor, 2).divide(BigDecimal.valueOf(12), 2, RoundingMode.HALF_UP);
+      assertEquals(expected, Money.ofMinor(minor).divide(12).toBigDecimal(), String.valueOf(minor));
+    }
+  }
+
+  @Test
+  void paymentProgressMatchesBigDecimalRounding() {
+    Credit credit = Credit.builder().totalInstallments(12).build();
+    for (int paid = 0; paid <= 12; paid++) {
+      credit.setPaidInstallments(paid);
+      double expected = new BigDecimal(paid).multiply(new BigDecimal("100"))
+        .divide(new BigDecimal(12), 2, RoundingMode.HALF_UP).doubleValue();
+      assertEquals(expected, credit.getPaymentProgress());
+    }
+  }
+
+  @Test
+  void formatsAndSerializesAsPlainDecimal() throws Exception {
+    ObjectMapper objectMapper = new ObjectMapper();
+
+    assertEquals("1250.05", Money.ofMinor(1_250_05).toString());
+    assertEquals("-0.07", Money.ofMinor(-7).toString());
+    assertEquals("1250.05", objectMapper.writeValueAsString(Money.ofMinor(1_250_05)));
+    assertEquals(Money.ofMinor(1_250_05), objectMapper.readValue("1250.05", Money.class));
+  }
+
+  @Test
+  void persistsAsDecimal128AndReadsLegacyStrings() {
+    MongoCustomConversions conversions = MongoConfig.customConversions();
+    MongoMappingContext mappingContext = new MongoMappingContext();
+    mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+    MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+    converter.setCustomConversions(conversions);
+    converter.afterPropertiesSet();
+
+    Document written = new Document();
+    converter.write(Credit.builder().currentBalance(Money.ofMinor(13_750_00)).build(), written);
+    assertEquals(new Decimal128(new BigDecimal("13750.00")), written.get("currentBalance"));
+
+    Document legacy = new Document("currentBalance", "13750.00").append("monthlyPayment", 1250.0);
+    Credit read = converter.read(Credit.class, legacy);
+    assertEquals(Money.ofMinor(13_750_00), read.getCurrentBalance());
+    assertEquals(Money.ofMinor(1_250_00), read.getMonthlyPayment());
+  }
+
+  @Test
+  void keepsBeanValidationConstraints() {
+    Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+    Credit credit = Credit.builder()
+      .creditNumber("CR-00000000018")
+      .customerId("68a0cdde7d68c910da0bc239")
+      .type(CreditType.PERSONAL)
+      .originalAmount(Money.ofMinor(4_999_99))
+      .currentBalance(Money.ofMinor(-1))
+      .monthlyPayment(Money.ofMinor(416_67))
+      .totalInstallments(12)
+      .paidInstallments(0)
+      .remainingInstallments(12)
+      .status(CreditStatus.ACTIVE)
+      .build();
+
+    assertEquals(2, validator.validate(credit).size());
+    credit.setOriginalAmount(Money.ofMinor(5_000_00));
+    credit.setCurrentBalance(Money.ofMinor(5_000_00));
+    assertTrue(validator.validate(credit).isEmpty());
+  }
+}
@@ -0,0 +1,110 @@
+package com.bootcamp.ntt.credit_service.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.metrics.web.reactive.server.MetricsWebFilter;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.OrderUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveConcurrencyLimitFilterTest {
+
+  private SimpleMeterRegistry meterRegistry;
+  private AdaptiveConcurrencyLimitFilter filter;
+
+  @BeforeEach
+  void setUp() {
+    MockEnvironment environment = new MockEnvironment()
+      .withProperty("credit.concurrency-limit.payment.initial-limit", "1")
+      .withProperty("credit.concurrency-limit.payment.min-limit", "1");
+    meterRegistry = new SimpleMeterRegistry();
+    filter = new AdaptiveConcurrencyLimitFilter(environment, meterRegistry, new ObjectMapper().findAndRegisterModules(),
+      "/api/v1", true, 0.9, Duration.ofSeconds(2));
+  }
+
+  @Test
+  void shedsRequestsBeyondTheLimitOfTheirOperationClass() {
+    WebFilterChain pending = exchange -> Mono.never();
+    WebFilterChain completes = exchange -> Mono.empty();
+
+    filter.filter(payment(), pending).subscribe();
+
+    MockServerWebExchange shed = payment();
+    StepVerifier.create(filter.filter(shed, completes)).verifyComplete();
+    assertEquals(HttpStatus.SERVICE_UNAVAILABLE, shed.getResponse().getStatusCode());
+    assertEquals("2", shed.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+    assertEquals(1, meterRegistry.get("credit.concurrency.shed").tag("operation", "payment").counter().count());
+
+    // los listados tienen su propio límite
+    MockServerWebExchange list = MockServerWebExchange.from(MockServerHttpRequest.get("/api/v1/credits/page"));
+    StepVerifier.create(filter.filter(list, completes)).verifyComplete();
+    assertNull(list.getResponse().getStatusCode());
+  }
+
+  @Test
+  void longRunningOperationsDoNotShrinkTheirLimitOnLatency() {
+    assertEquals(OperationClass.BATCH_PAYMENT, OperationClass.of(HttpMethod.POST, "/credits/payments/batch"));
+    assertEquals(OperationClass.STREAM, OperationClass.of(HttpMethod.GET, "/credits"));
+
+    WebFilterChain slow = exchange -> Mono.delay(Duration.ofMillis(50)).then();
+    MockServerWebExchange batch = MockServerWebExchange.from(
+      MockServerHttpRequest.post("/api/v1/credits/payments/batch"));
+    StepVerifier.create(filter.filter(batch, slow)).verifyComplete();
+    MockServerWebExchange stream = MockServerWebExchange.from(MockServerHttpRequest.get("/api/v1/credits"));
+    StepVerifier.create(filter.filter(stream, slow)).verifyComplete();
+
+    assertEquals(OperationClass.BATCH_PAYMENT.getInitialLimit(), limit("batch-payment"));
+    assertEquals(OperationClass.STREAM.getInitialLimit(), limit("stream"));
+    assertEquals(1, limit("payment"));
+  }
+
+  @Test
+  void adaptsTheLimitToObservedLatency() {
+    AimdConcurrencyLimiter limiter = new AimdConcurrencyLimiter(10, 2, 12, TimeUnit.MILLISECONDS.toNanos(100), 0.5);
+
+    for (int i = 0; i < 5; i++) {
+      limiter.tryAcquire();
+    }
+    limiter.onSuccess(TimeUnit.MILLISECONDS.toNanos(10));
+    assertEquals(11, limiter.getLimit());
+
+    limiter.onSuccess(TimeUnit.MILLISECONDS.toNanos(500));
+    assertEquals(5, limiter.getLimit());
+
+    limiter.onDropped();
+    limiter.onDropped();
+    assertEquals(2, limiter.getLimit());
+    assertEquals(1, limiter.getInFlight());
+  }
+
+  @Test
+  void runsInsideTheRequestMetricsFilterSoShedRequestsAreMeasured() {
+    assertTrue(OrderUtils.getOrder(AdaptiveConcurrencyLimitFilter.class, Ordered.LOWEST_PRECEDENCE)
+      > OrderUtils.getOrder(MetricsWebFilter.class, Ordered.LOWEST_PRECEDENCE));
+  }
+
+  private int limit(String operation) {
+    return (int) meterRegistry.get("credit.concurrency.limit").tag("operation", operation).gauge().value();
+  }
+
+  private static MockServerWebExchange payment() {
+    return MockServerWebExchange.from(MockServerHttpRequest.post("/api/v1/credits/CR-00000000001/process-payment"));
+  }
+}
@@ -0,0 +1,261 @@
+package com.bootcamp.ntt.credit_service.repository;
+
+import com.bootcamp.ntt.credit_service.config.MongoConfig;
+import com.bootcamp.ntt.credit_service.config.MongoInitializer;
+import com.bootcamp.ntt.credit_service.entity.Credit;
+import com.bootcamp.ntt.credit_service.entity.CreditStatus;
+import com.bootcamp.ntt.credit_service.entity.CreditType;
+import com.bootcamp.ntt.credit_service.entity.Money;
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
+import de.flapdoodle.embed.mongo.MongodExecutable;
+import de.flapdoodle.embed.mongo.MongodStarter;
+import de.flapdoodle.embed.mongo.config.MongodConfig;
+import de.flapdoodle.embed.mongo.config.Net;
+import de.flapdoodle.embed.mongo.distribution.Version;
+import de.flapdoodle.embed.process.runtime.Network;
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.SimpleReactiveMongoDatabaseFactory;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.repository.support.ReactiveMongoRepositoryFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Ejecuta cada query de CreditRepository contra Mongo, captura los comandos enviados
+ * y verifica con explain() que ninguno resuelve con COLLSCAN.
+ * Levanta un Mongo embebido (credit.test.mongo-version, por defecto V4_0: tiene binarios genéricos
+ * de Linux y flapdoodle lo resuelve en cualquier distribución), o usa credit.test.mongo-uri si se indica.
+ */
+class CreditRepositoryIndexTest {
+
+  private static final String DATABASE = "credit_service_index_test";
+  private static final String COLLECTION = "credits";
+  private static final Set<String> EXPLAINABLE = Set.of("find", "aggregate", "count", "findAndModify", "update");
+
+  private static final List<BsonDocument> commands = new CopyOnWriteArrayList<>();
+
+  private static MongodExecutable embeddedMongo;
+  private static MongoClient client;
+  private static ReactiveMongoTemplate mongoTemplate;
+  private static CreditRepository repository;
+
+  @BeforeAll
+  static void connect() throws IOException {
+    String uri = System.getProperty("credit.test.mongo-uri");
+    if (uri == null) {
+      uri = startEmbeddedMongo();
+    }
+    CommandListener listener = new CommandListener() {
+      @Override
+      public void commandStarted(CommandStartedEvent event) {
+        if (EXPLAINABLE.contains(event.getCommandName())) {
+          commands.add(event.getCommand().clone());
+        }
+      }
+    };
+
+    client = MongoClients.create(MongoClientSettings.builder()
+      .applyConnectionString(new ConnectionString(uri))
+      .applyToClusterSettings(cluster -> cluster.serverSelectionTimeout(2, TimeUnit.SECONDS))
+      .addCommandListener(listener)
+      .build());
+
+    MongoCustomConversions conversions = MongoConfig.customConversions();
+    MongoMappingContext mappingContext = new MongoMappingContext();
+    mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+    mappingContext.afterPropertiesSet();
+    MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+    converter.setCustomConversions(conversions);
+    converter.afterPropertiesSet();
+
+    mongoTemplate = new ReactiveMongoTemplate(new SimpleReactiveMongoDatabaseFactory(client, DATABASE), converter);
+    repository = new ReactiveMongoRepositoryFactory(mongoTemplate)
+      .getRepository(CreditRepository.class, new CreditRepositoryCustomImpl(mongoTemplate));
+
+    mongoTemplate.dropCollection(Credit.class).block();
+    new MongoInitializer(mongoTemplate).ensureIndexes().block();
+    seedCredits().block();
+  }
+
+  @AfterAll
+  static void cleanUp() {
+    if (client != null) {
+      if (mongoTemplate != null) {
+        mongoTemplate.dropCollection(Credit.class).block();
+      }
+      client.close();
+    }
+    if (embeddedMongo != null) {
+      embeddedMongo.stop();
+    }
+  }
+
+  private static String startEmbeddedMongo() throws IOException {
+    int port = Network.getFreeServerPort();
+    MongodConfig config = MongodConfig.builder()
+      .version(Version.Main.valueOf(System.getProperty("credit.test.mongo-version", "V4_0")))
+      .net(new Net(port, Network.localhostIsIPv6()))
+      .build();
+    embeddedMongo = MongodStarter.getDefaultInstance().prepare(config);
+    embeddedMongo.start();
+    return "mongodb://localhost:" + port;
+  }
+
+  @BeforeEach
+  void clearCommands() {
+    commands.clear();
+  }
+
+  @Test
+  void derivedQueriesUseIndexes() {
+    repository.findByIsActive(true).blockLast();
+    repository.countByCustomerIdAndIsActiveTrueAndStatus("customer-1", CreditStatus.ACTIVE).block();
+    repository.findByCreditNumber("CR-00000000018").block();
+    repository.findByCreditNumberIn(List.of("CR-00000000018", "CR-00000000026")).blockLast();
+    repository.findByCustomerId("customer-1").blockLast();
+    repository.findByIsActiveAndCustomerId(true, "customer-1").blockLast();
+    repository.findOverdueByCustomerId("customer-1", LocalDate.now()).blockLast();
+
+    assertNoCollectionScan();
+  }
+
+  @Test
+  void customQueriesUseIndexes() {
+    LocalDate today = LocalDate.now();
+    Credit first = repository.findByCreditNumber("CR-00000000018").block();
+
+    repository.findNewlyOverdue(null, today).blockLast();
+    repository.findNewlyOverdue(today.minusDays(30), today).blockLast();
+    repository.markOverdue(List.of(first.getId()), today).block();
+    repository.findPage(true, null, null, 10).blockLast();
+    repository.findPage(true, "customer-1", first.getId(), 10).blockLast();
+    repository.streamByActive(true, null, 100).blockLast();
+    repository.streamByActive(true, "customer-2", 100).blockLast();
+
+    Credit paid = repository.findByCreditNumber("CR-00000000026").block();
+    int observed = paid.getPaidInstallments();
+    paid.processPayment(paid.getMonthlyPayment());
+    repository.applyInstallmentPayment(paid, observed).block();
+    repository.applyInstallmentPayments(List.of(paid), Map.of(paid.getId(), observed), "batch-1").block();
+
+    assertNoCollectionScan();
+  }
+
+  private void assertNoCollectionScan() {
+    List<BsonDocument> credits = commands.stream()
+      .filter(command -> COLLECTION.equals(targetCollection(command)))
+      .collect(Collectors.toList());
+    assertTrue(!credits.isEmpty(), "No commands captured against " + COLLECTION);
+
+    List<String> collectionScans = new ArrayList<>();
+    for (BsonDocument command : credits) {
+      for (BsonDocument explainable : explainableCommands(command)) {
+        Document plan = Mono.from(client.getDatabase(DATABASE)
+            .runCommand(new Document("explain", explainable).append("verbosity", "queryPlanner")))
+          .block();
+        if (winningPlanHasCollectionScan(plan)) {
+          collectionScans.add(explainable.toJson());
+        }
+      }
+    }
+
+    assertTrue(collectionScans.isEmpty(), "Queries resolved with COLLSCAN: " + collectionScans);
+  }
+
+  private static String targetCollection(BsonDocument command) {
+    BsonValue target = command.get(command.getFirstKey());
+    return target != null && target.isString() ? target.asString().getValue() : null;
+  }
+
+  /**
+   * Quita los campos de sesión/cluster que explain no acepta; los update se explican de a una sentencia
+   */
+  private static List<BsonDocument> explainableCommands(BsonDocument command) {
+    BsonDocument clean = new BsonDocument();
+    command.forEach((key, value) -> {
+      if (!key.startsWith("$") && !key.equals("lsid") && !key.equals("txnNumber")) {
+        clean.put(key, value);
+      }
+    });
+
+    if (!clean.containsKey("update")) {
+      return List.of(clean);
+    }
+    List<BsonDocument> statements = new ArrayList<>();
+    for (BsonValue statement : clean.getArray("updates", new BsonArray())) {
+      statements.add(new BsonDocument("update", new BsonString(COLLECTION))
+        .append("updates", new BsonArray(List.of(statement))));
+    }
+    return statements;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static boolean winningPlanHasCollectionScan(Object node) {
+    if (node instanceof Map) {
+      Map<String, Object> map = (Map<String, Object>) node;
+      if ("COLLSCAN".equals(map.get("stage"))) {
+        return true;
+      }
+      return map.entrySet().stream()
+        .filter(entry -> !entry.getKey().equals("rejectedPlans"))
+        .anyMatch(entry -> winningPlanHasCollectionScan(entry.getValue()));
+    }
+    if (node instanceof List) {
+      return ((List<Object>) node).stream().anyMatch(CreditRepositoryIndexTest::winningPlanHasCollectionScan);
+    }
+    return false;
+  }
+
+  private static Mono<Void> seedCredits() {
+    LocalDate today = LocalDate.now();
+    return Flux.range(1, 20)
+      .map(i -> Credit.builder()
+        .creditNumber(i == 1 ? "CR-00000000018" : i == 2 ? "CR-00000000026" : "CR-SEED-" + i)
+        .customerId("customer-" + (i % 3))
+        .type(CreditType.PERSONAL)
+        .originalAmount(Money.ofMinor(12_000_00))
+        .currentBalance(Money.ofMinor(12_000_00))
+        .monthlyPayment(Money.ofMinor(1_000_00))
+        .totalInstallments(12)
+        .paidInstallments(0)
+        .remainingInstallments(12)
+        .nextPaymentDueDate(today.plusDays(i - 10))
+        .finalDueDate(today.plusMonths(12))
+        .isOverdue(false)
+        .overdueDays(0)
+        .status(CreditStatus.ACTIVE)
+        .isActive(i % 5 != 0)
+        .build())
+      .concatMap(mongoTemplate::insert)
+      .then();
+  }
+}
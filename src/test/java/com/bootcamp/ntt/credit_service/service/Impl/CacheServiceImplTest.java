@@ -0,0 +1,210 @@
+package com.bootcamp.ntt.credit_service.service.Impl;
+
+import com.bootcamp.ntt.credit_service.config.RedisConfig;
+import com.bootcamp.ntt.credit_service.dto.VersionedValue;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import de.flapdoodle.embed.process.runtime.Network;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+import static com.bootcamp.ntt.credit_service.utils.CacheKeys.BALANCE;
+import static com.bootcamp.ntt.credit_service.utils.CacheKeys.CREDIT_BY_ID;
+import static com.bootcamp.ntt.credit_service.utils.CacheKeys.CREDIT_BY_NUMBER;
+import static com.bootcamp.ntt.credit_service.utils.CacheKeys.DELETED_VERSION;
+import static com.bootcamp.ntt.credit_service.utils.CacheKeys.INVALIDATION_CHANNEL;
+import static com.bootcamp.ntt.credit_service.utils.CacheKeys.versionKey;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * CacheServiceImpl contra un Redis real: el compare-and-set por versión es un script Lua y la
+ * invalidación del L1 viaja por pub/sub, ninguno de los dos se puede probar con mocks.
+ * Levanta un Redis embebido, o usa credit.test.redis-uri (redis://host:port) si se indica.
+ */
+class CacheServiceImplTest {
+
+  private static final String KEY = CREDIT_BY_ID + "credit-1";
+  private static final Duration TTL = Duration.ofMinutes(1);
+
+  private static RedisServer embeddedRedis;
+  private static LettuceConnectionFactory connectionFactory;
+  private static ReactiveRedisTemplate<String, Object> redisTemplate;
+  private static ReactiveStringRedisTemplate stringRedisTemplate;
+
+  private final List<CacheServiceImpl> nodes = new ArrayList<>();
+
+  @BeforeAll
+  static void connect() throws IOException {
+    URI uri = URI.create(System.getProperty("credit.test.redis-uri", ""));
+    if (uri.getHost() == null) {
+      uri = startEmbeddedRedis();
+    }
+
+    connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration(uri.getHost(), uri.getPort()));
+    connectionFactory.afterPropertiesSet();
+    redisTemplate = new RedisConfig().reactiveRedisTemplate(connectionFactory, "json");
+    stringRedisTemplate = new ReactiveStringRedisTemplate(connectionFactory);
+  }
+
+  @BeforeEach
+  void flush() {
+    redisTemplate.execute(connection -> connection.serverCommands().flushDb()).blockLast();
+  }
+
+  @AfterEach
+  void stopNodes() {
+    nodes.forEach(CacheServiceImpl::unsubscribeFromInvalidations);
+  }
+
+  @AfterAll
+  static void cleanUp() throws IOException {
+    if (connectionFactory != null) {
+      connectionFactory.destroy();
+    }
+    if (embeddedRedis != null) {
+      embeddedRedis.stop();
+    }
+  }
+
+  @Test
+  void invalidationFromAnotherNodeEvictsTheLocalEntry() {
+    Cache<String, Object> remoteL1 = Caffeine.newBuilder().build();
+    CacheServiceImpl local = node(Caffeine.newBuilder().build());
+    node(remoteL1);
+
+    remoteL1.put(KEY, "cached");
+    local.invalidate(KEY).block();
+
+    assertTrue(eventually(() -> remoteL1.getIfPresent(KEY) == null), "remote L1 entry was not evicted");
+  }
+
+  @Test
+  void multiKeyInvalidationHasRemovedEveryKeyWhenItCompletes() {
+    CacheServiceImpl cache = node(Caffeine.newBuilder().build());
+    String[] keys = {KEY, CREDIT_BY_NUMBER + "CR-00000000001", BALANCE + "CR-00000000001"};
+    for (String key : keys) {
+      cache.set(key, "cached", TTL).block();
+    }
+
+    cache.invalidate(keys).block();
+
+    for (String key : keys) {
+      assertFalse(Boolean.TRUE.equals(redisTemplate.hasKey(key).block()), key + " still in Redis");
+      StepVerifier.create(cache.get(key, String.class)).verifyComplete();
+    }
+  }
+
+  @Test
+  void concurrentMissesForTheSameKeyShareOneLoad() {
+    CacheServiceImpl cache = node(Caffeine.newBuilder().build());
+    AtomicInteger loads = new AtomicInteger();
+    // la carga tarda más que la lectura de Redis: todos los misses llegan mientras sigue en curso
+    Supplier<Mono<String>> loader = () -> Mono.delay(Duration.ofMillis(200))
+      .map(tick -> "loaded-" + loads.incrementAndGet());
+
+    List<String> values = Flux.range(0, 20)
+      .flatMap(i -> cache.getOrLoad(KEY, String.class, loader, TTL))
+      .collectList()
+      .block();
+
+    assertEquals(1, loads.get());
+    assertEquals(20, values.size());
+    assertTrue(values.stream().allMatch("loaded-1"::equals));
+  }
+
+  @Test
+  void olderVersionDoesNotOverwriteANewerOne() {
+    CacheServiceImpl writer = node(Caffeine.newBuilder().build());
+    CacheServiceImpl laggingWriter = node(Caffeine.newBuilder().build());
+
+    writer.setAll(Map.of(KEY, VersionedValue.of("version-5", 5L)), TTL).block();
+    laggingWriter.setAll(Map.of(KEY, VersionedValue.of("version-3", 3L)), TTL).block();
+
+    assertEquals("version-5", redisTemplate.opsForValue().get(KEY).block());
+    assertEquals("5", stringRedisTemplate.opsForValue().get(versionKey(KEY)).block());
+    // el escritor atrasado tampoco se queda con su valor en el L1
+    StepVerifier.create(laggingWriter.get(KEY, String.class))
+      .expectNext("version-5")
+      .verifyComplete();
+  }
+
+  @Test
+  void deleteTombstoneBlocksRepopulationFromAnOlderVersion() {
+    CacheServiceImpl cache = node(Caffeine.newBuilder().build());
+    cache.setAll(Map.of(KEY, VersionedValue.of("version-4", 4L)), TTL).block();
+
+    cache.invalidate(Map.of(KEY, DELETED_VERSION), TTL).block();
+    // una lectura que empezó antes del borrado intenta repoblar con lo que leyó de Mongo
+    cache.setAll(Map.of(KEY, VersionedValue.of("version-4", 4L)), TTL).block();
+
+    assertFalse(Boolean.TRUE.equals(redisTemplate.hasKey(KEY).block()));
+    assertEquals(String.valueOf(DELETED_VERSION), stringRedisTemplate.opsForValue().get(versionKey(KEY)).block());
+    StepVerifier.create(cache.get(KEY, String.class)).verifyComplete();
+  }
+
+  /**
+   * Réplica con su propio L1, ya suscrita al canal de invalidación
+   */
+  private CacheServiceImpl node(Cache<String, Object> l1) {
+    CacheServiceImpl node = new CacheServiceImpl(redisTemplate, stringRedisTemplate, l1, new SimpleMeterRegistry());
+    node.init();
+    nodes.add(node);
+
+    // la suscripción es asíncrona: se publica una clave de prueba hasta que el nodo la desaloja
+    String probe = "probe:" + nodes.size();
+    l1.put(probe, "probe");
+    assertTrue(eventually(() -> {
+      stringRedisTemplate.convertAndSend(INVALIDATION_CHANNEL, "test-node|" + probe).block();
+      return l1.getIfPresent(probe) == null;
+    }), "node did not subscribe to cache invalidations");
+    return node;
+  }
+
+  private static boolean eventually(BooleanSupplier condition) {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (!condition.getAsBoolean()) {
+      if (System.nanoTime() > deadline) {
+        return false;
+      }
+      try {
+        Thread.sleep(20);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static URI startEmbeddedRedis() throws IOException {
+    int port = Network.getFreeServerPort();
+    embeddedRedis = new RedisServer(port);
+    embeddedRedis.start();
+    return URI.create("redis://localhost:" + port);
+  }
+}
@@ -0,0 +1,373 @@
+package com.bootcamp.ntt.credit_service.service.Impl;
+
+import com.bootcamp.ntt.credit_service.client.CustomerServiceClient;
+import com.bootcamp.ntt.credit_service.entity.Credit;
+import com.bootcamp.ntt.credit_service.entity.CreditStatus;
+import com.bootcamp.ntt.credit_service.entity.CreditType;
+import com.bootcamp.ntt.credit_service.entity.Money;
+import com.bootcamp.ntt.credit_service.mapper.CreditMapper;
+import com.bootcamp.ntt.credit_service.model.BatchPaymentItem;
+import com.bootcamp.ntt.credit_service.model.BatchPaymentResult;
+import com.bootcamp.ntt.credit_service.model.CreditPage;
+import com.bootcamp.ntt.credit_service.model.CreditResponse;
+import com.bootcamp.ntt.credit_service.model.PaymentProcessRequest;
+import com.bootcamp.ntt.credit_service.model.PaymentProcessResponse;
+import com.bootcamp.ntt.credit_service.repository.CreditRepository;
+import com.bootcamp.ntt.credit_service.service.CacheService;
+import com.bootcamp.ntt.credit_service.service.CreditNumberAllocator;
+import com.bootcamp.ntt.credit_service.service.CustomerTypeService;
+import com.bootcamp.ntt.credit_service.service.ExternalServiceWrapper;
+import com.bootcamp.ntt.credit_service.service.OutboxService;
+import com.bootcamp.ntt.credit_service.utils.CreditUtils;
+import com.mongodb.MongoCommandException;
+import com.mongodb.MongoException;
+import com.mongodb.ServerAddress;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonInt32;
+import org.bson.BsonString;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.MongoExceptionTranslator;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.web.server.ServerWebInputException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CreditServiceImplTest {
+
+  private static final String CREDIT_NUMBER = "CR-00000000018";
+
+  private CreditRepository creditRepository;
+  private CreditServiceImpl creditService;
+  private Credit stored;
+
+  @BeforeEach
+  @SuppressWarnings("unchecked")
+  void setUp() {
+    creditRepository = mock(CreditRepository.class);
+    TransactionalOperator transactionalOperator = mock(TransactionalOperator.class);
+    when(transactionalOperator.transactional(any(Mono.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+    creditService = new CreditServiceImpl(creditRepository, new CreditMapper(), mock(CustomerServiceClient.class),
+      mock(ExternalServiceWrapper.class), mock(CacheService.class, invocation -> Mono.empty()),
+      mock(CreditNumberAllocator.class), new CreditUtils(), mock(OutboxService.class, invocation -> Mono.empty()),
+      mock(CustomerTypeService.class), new SimpleMeterRegistry(), transactionalOperator);
+
+    stored = credit();
+  }
+
+  @Test
+  void overlappingPaymentsOnTheSameCreditBothApplyAfterAWriteConflict() {
+    // las dos peticiones leen el crédito antes de que cualquiera escriba
+    AtomicInteger reads = new AtomicInteger();
+    Sinks.Empty<Void> bothRead = Sinks.empty();
+    when(creditRepository.findByCreditNumber(CREDIT_NUMBER)).thenAnswer(invocation ->
+      Mono.fromCallable(() -> copy(stored))
+        .delayUntil(credit -> {
+          if (reads.incrementAndGet() == 2) {
+            bothRead.tryEmitEmpty();
+          }
+          return bothRead.asMono();
+        }));
+
+    // la primera transacción escribe y confirma recién cuando la segunda choca con su escritura
+    AtomicReference<Sinks.Empty<Void>> uncommitted = new AtomicReference<>();
+    AtomicInteger writes = new AtomicInteger();
+    when(creditRepository.applyInstallmentPayment(any(Credit.class), anyInt())).thenAnswer(invocation -> {
+      Credit paid = invocation.getArgument(0);
+      int observedPaidInstallments = invocation.getArgument(1);
+      synchronized (this) {
+        Sinks.Empty<Void> inFlight = uncommitted.getAndSet(null);
+        if (inFlight != null) {
+          inFlight.tryEmitEmpty();
+          return Mono.error(writeConflict());
+        }
+        if (stored.getPaidInstallments() != observedPaidInstallments || !stored.getVersion().equals(paid.getVersion())) {
+          return Mono.empty();
+        }
+        paid.setVersion(paid.getVersion() + 1);
+        Mono<Credit> commit = Mono.fromCallable(() -> {
+          stored = copy(paid);
+          return copy(paid);
+        });
+        if (writes.getAndIncrement() > 0) {
+          return commit;
+        }
+        Sinks.Empty<Void> conflictSeen = Sinks.empty();
+        uncommitted.set(conflictSeen);
+        return conflictSeen.asMono().then(commit);
+      }
+    });
+
+    StepVerifier.create(Mono.zip(
+        creditService.processPayment(CREDIT_NUMBER, payment()),
+        creditService.processPayment(CREDIT_NUMBER, payment())))
+      .assertNext(responses -> {
+        assertTrue(responses.getT1().getSuccess());
+        assertTrue(responses.getT2().getSuccess());
+      })
+      .expectComplete()
+      .verify(Duration.ofSeconds(5));
+
+    assertEquals(2, stored.getPaidInstallments());
+    assertEquals(10, stored.getRemainingInstallments());
+    verify(creditRepository, times(3)).applyInstallmentPayment(any(Credit.class), anyInt());
+  }
+
+  @Test
+  void creditSavedWithoutVersionByAnOlderReplicaIsUpdatedInPlace() {
+    stored.setVersion(null);
+    stored.setActive(false);
+    when(creditRepository.findById(stored.getId())).thenReturn(Mono.just(stored));
+    when(creditRepository.initializeVersion(stored.getId())).thenReturn(Mono.empty());
+    when(creditRepository.save(any(Credit.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+
+    StepVerifier.create(creditService.activateCredit(stored.getId()))
+      .assertNext(response -> assertTrue(response.getIsActive()))
+      .expectComplete()
+      .verify(Duration.ofSeconds(5));
+
+    // con versión 0 Spring Data actualiza el documento existente en lugar de insertarlo
+    ArgumentCaptor<Credit> saved = ArgumentCaptor.forClass(Credit.class);
+    verify(creditRepository).save(saved.capture());
+    assertEquals(0L, saved.getValue().getVersion());
+    verify(creditRepository).initializeVersion(stored.getId());
+  }
+
+  @Test
+  void paymentChunkIsRetriedFromTheReadAfterAWriteConflict() {
+    ReflectionTestUtils.setField(creditService, "paymentBatchChunkSize", 500);
+    when(creditRepository.findByCreditNumberIn(anyCollection()))
+      .thenAnswer(invocation -> Flux.just(copy(stored)));
+
+    // un process-payment concurrente choca con la transacción del primer intento
+    AtomicInteger writes = new AtomicInteger();
+    when(creditRepository.applyInstallmentPayments(anyCollection(), anyMap(), anyString())).thenAnswer(invocation -> {
+      if (writes.getAndIncrement() == 0) {
+        return Mono.error(writeConflict());
+      }
+      Collection<Credit> paidCredits = invocation.getArgument(0);
+      return Mono.just(paidCredits.stream().map(Credit::getId).collect(Collectors.toSet()));
+    });
+
+    StepVerifier.create(creditService.processPaymentBatch(Flux.just(
+          batchItem(CREDIT_NUMBER), batchItem(CREDIT_NUMBER), batchItem("CR-9999")))
+        .collectList())
+      .assertNext(results -> {
+        assertEquals(List.of(0L, 1L, 2L),
+          results.stream().map(BatchPaymentResult::getIndex).collect(Collectors.toList()));
+        assertTrue(results.get(0).getResult().getSuccess());
+        assertEquals(2, results.get(1).getResult().getPaidInstallments());
+        assertEquals(PaymentProcessResponse.ErrorCodeEnum.CREDIT_NOT_FOUND, results.get(2).getResult().getErrorCode());
+      })
+      .expectComplete()
+      .verify(Duration.ofSeconds(5));
+
+    verify(creditRepository, times(2)).findByCreditNumberIn(anyCollection());
+    verify(creditRepository, times(2)).applyInstallmentPayments(anyCollection(), anyMap(), anyString());
+  }
+
+  @Test
+  void invalidAmountInTheMiddleOfAChunkGetsItsOwnResultAndTheStreamContinues() {
+    ReflectionTestUtils.setField(creditService, "paymentBatchChunkSize", 500);
+    when(creditRepository.findByCreditNumberIn(anyCollection()))
+      .thenAnswer(invocation -> Flux.just(copy(stored)));
+    when(creditRepository.applyInstallmentPayments(anyCollection(), anyMap(), anyString())).thenAnswer(invocation -> {
+      Collection<Credit> paidCredits = invocation.getArgument(0);
+      return Mono.just(paidCredits.stream().map(Credit::getId).collect(Collectors.toSet()));
+    });
+
+    BatchPaymentItem missingAmount = batchItem(CREDIT_NUMBER);
+    missingAmount.setAmount(null);
+    BatchPaymentItem subCent = batchItem(CREDIT_NUMBER);
+    subCent.setAmount(0.004);
+
+    StepVerifier.create(creditService.processPaymentBatch(Flux.just(
+          batchItem(CREDIT_NUMBER), missingAmount, subCent, batchItem(CREDIT_NUMBER)))
+        .collectList())
+      .assertNext(results -> {
+        assertEquals(4, results.size());
+        assertTrue(results.get(0).getResult().getSuccess());
+        assertEquals(PaymentProcessResponse.ErrorCodeEnum.INVALID_AMOUNT, results.get(1).getResult().getErrorCode());
+        assertEquals(PaymentProcessResponse.ErrorCodeEnum.INVALID_AMOUNT, results.get(2).getResult().getErrorCode());
+        assertEquals(2, results.get(3).getResult().getPaidInstallments());
+      })
+      .expectComplete()
+      .verify(Duration.ofSeconds(5));
+  }
+
+  @Test
+  void followingNextCursorWalksEveryCreditOnceAndTheLastPageHasNoCursor() {
+    List<Credit> credits = keysetCredits(5);
+
+    CreditPage first = creditService.getCreditsPage(true, null, null, 2).block();
+    CreditPage second = creditService.getCreditsPage(true, null, first.getNextCursor(), 2).block();
+    CreditPage last = creditService.getCreditsPage(true, null, second.getNextCursor(), 2).block();
+
+    assertEquals(ids(credits.subList(0, 2)), ids(first));
+    assertEquals(ids(credits.subList(2, 4)), ids(second));
+    assertEquals(ids(credits.subList(4, 5)), ids(last));
+    assertNull(last.getNextCursor());
+  }
+
+  @Test
+  void nonPositiveLimitIsClampedToOneCredit() {
+    List<Credit> credits = keysetCredits(3);
+
+    for (int limit : new int[]{0, -5}) {
+      StepVerifier.create(creditService.getCreditsPage(true, null, null, limit))
+        .assertNext(page -> {
+          assertEquals(ids(credits.subList(0, 1)), ids(page));
+          assertNotNull(page.getNextCursor());
+        })
+        .verifyComplete();
+    }
+  }
+
+  @Test
+  void malformedCursorIsRejectedWithoutQueryingMongo() {
+    keysetCredits(3);
+    String notAnObjectId = Base64.getUrlEncoder().withoutPadding()
+      .encodeToString("credit-1".getBytes(StandardCharsets.UTF_8));
+
+    for (String cursor : new String[]{"%%not-base64%%", notAnObjectId}) {
+      StepVerifier.create(creditService.getCreditsPage(true, null, cursor, 2))
+        .verifyError(ServerWebInputException.class);
+    }
+    verify(creditRepository, never()).findPage(any(), any(), any(), anyInt());
+  }
+
+  /**
+   * Créditos ordenados por _id; findPage responde como la query keyset (id mayor al cursor, hasta limit)
+   */
+  private List<Credit> keysetCredits(int count) {
+    ReflectionTestUtils.setField(creditService, "maxPageSize", 500);
+    List<Credit> credits = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      Credit credit = copy(stored);
+      credit.setId(new ObjectId().toHexString());
+      credits.add(credit);
+    }
+    credits.sort(Comparator.comparing(Credit::getId));
+
+    when(creditRepository.findPage(any(), any(), any(), anyInt())).thenAnswer(invocation -> {
+      String afterId = invocation.getArgument(2);
+      int limit = invocation.getArgument(3);
+      return Flux.fromIterable(credits)
+        .filter(credit -> afterId == null || credit.getId().compareTo(afterId) > 0)
+        .take(limit);
+    });
+    return credits;
+  }
+
+  private static List<String> ids(List<Credit> credits) {
+    return credits.stream().map(Credit::getId).collect(Collectors.toList());
+  }
+
+  private static List<String> ids(CreditPage page) {
+    return page.getItems().stream().map(CreditResponse::getId).collect(Collectors.toList());
+  }
+
+  /**
+   * Lo que recibe el servicio cuando Mongo aborta la transacción perdedora
+   */
+  private static RuntimeException writeConflict() {
+    BsonDocument response = new BsonDocument("ok", new BsonInt32(0))
+      .append("code", new BsonInt32(112))
+      .append("codeName", new BsonString("WriteConflict"))
+      .append("errmsg", new BsonString("WriteConflict error: this operation conflicted with another operation"))
+      .append("errorLabels", new BsonArray(List.of(
+        new BsonString(MongoException.TRANSIENT_TRANSACTION_ERROR_LABEL))));
+    return new MongoExceptionTranslator()
+      .translateExceptionIfPossible(new MongoCommandException(response, new ServerAddress()));
+  }
+
+  private static BatchPaymentItem batchItem(String creditNumber) {
+    BatchPaymentItem item = new BatchPaymentItem();
+    item.setCreditNumber(creditNumber);
+    item.setAmount(1000.0);
+    return item;
+  }
+
+  private static PaymentProcessRequest payment() {
+    PaymentProcessRequest request = new PaymentProcessRequest();
+    request.setAmount(1000.0);
+    return request;
+  }
+
+  private static Credit credit() {
+    return Credit.builder()
+      .id("credit-1")
+      .creditNumber(CREDIT_NUMBER)
+      .customerId("customer-1")
+      .type(CreditType.PERSONAL)
+      .originalAmount(Money.ofMinor(12_000_00))
+      .currentBalance(Money.ofMinor(12_000_00))
+      .monthlyPayment(Money.ofMinor(1_000_00))
+      .totalInstallments(12)
+      .paidInstallments(0)
+      .remainingInstallments(12)
+      .nextPaymentDueDate(LocalDate.now().plusMonths(1))
+      .isOverdue(false)
+      .overdueDays(0)
+      .status(CreditStatus.ACTIVE)
+      .isActive(true)
+      .version(1L)
+      .build();
+  }
+
+  private static Credit copy(Credit credit) {
+    return Credit.builder()
+      .id(credit.getId())
+      .creditNumber(credit.getCreditNumber())
+      .customerId(credit.getCustomerId())
+      .type(credit.getType())
+      .originalAmount(credit.getOriginalAmount())
+      .currentBalance(credit.getCurrentBalance())
+      .monthlyPayment(credit.getMonthlyPayment())
+      .totalInstallments(credit.getTotalInstallments())
+      .paidInstallments(credit.getPaidInstallments())
+      .remainingInstallments(credit.getRemainingInstallments())
+      .nextPaymentDueDate(credit.getNextPaymentDueDate())
+      .isOverdue(credit.getIsOverdue())
+      .overdueDays(credit.getOverdueDays())
+      .status(credit.getStatus())
+      .isActive(credit.isActive())
+      .version(credit.getVersion())
+      .build();
+  }
+}
@@ -0,0 +1,144 @@
+package com.bootcamp.ntt.credit_service.service.Impl;
+
+import com.bootcamp.ntt.credit_service.client.dto.customer.CustomerTypeResponse;
+import com.bootcamp.ntt.credit_service.dto.CustomerEvent;
+import com.bootcamp.ntt.credit_service.entity.CustomerTypeProjection;
+import com.bootcamp.ntt.credit_service.exception.CustomerNotFoundException;
+import com.bootcamp.ntt.credit_service.repository.CustomerTypeProjectionRepository;
+import com.bootcamp.ntt.credit_service.service.ExternalServiceWrapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Reglas de orden de la réplica: gana el evento más reciente, el valor obtenido por HTTP
+ * nunca le gana a un evento y un cliente eliminado no vuelve a aparecer con un evento atrasado.
+ */
+class CustomerTypeServiceImplTest {
+
+  private static final String CUSTOMER_ID = "customer-1";
+  private static final Instant OCCURRED_AT = Instant.parse("2024-05-01T10:00:00Z");
+
+  private CustomerTypeProjectionRepository projectionRepository;
+  private ReactiveMongoTemplate mongoTemplate;
+  private ExternalServiceWrapper externalServiceWrapper;
+  private CustomerTypeServiceImpl service;
+
+  @BeforeEach
+  void setUp() {
+    projectionRepository = mock(CustomerTypeProjectionRepository.class);
+    mongoTemplate = mock(ReactiveMongoTemplate.class);
+    externalServiceWrapper = mock(ExternalServiceWrapper.class);
+    service = new CustomerTypeServiceImpl(projectionRepository, mongoTemplate, externalServiceWrapper,
+      new ObjectMapper());
+    ReflectionTestUtils.setField(service, "tombstoneRetention", Duration.ofDays(30));
+    when(mongoTemplate.upsert(any(Query.class), any(UpdateDefinition.class), eq(CustomerTypeProjection.class)))
+      .thenReturn(Mono.just(UpdateResult.acknowledged(1, 1L, null)));
+  }
+
+  @Test
+  void httpFallbackOnlyInsertsAndLosesAgainstAnyEvent() {
+    when(projectionRepository.findById(CUSTOMER_ID)).thenReturn(Mono.empty());
+    CustomerTypeResponse response = new CustomerTypeResponse();
+    response.setId(CUSTOMER_ID);
+    response.setCustomerType("PERSONAL");
+    when(externalServiceWrapper.getCustomerTypeWithCircuitBreaker(CUSTOMER_ID)).thenReturn(Mono.just(response));
+
+    StepVerifier.create(service.getCustomerType(CUSTOMER_ID))
+      .expectNext(response)
+      .verifyComplete();
+
+    Document query = capturedQuery();
+    Document update = capturedUpdate();
+    assertEquals(new Document("_id", CUSTOMER_ID), query);
+    assertNull(update.get("$set"), "The fallback must not overwrite an existing projection");
+    Document setOnInsert = (Document) update.get("$setOnInsert");
+    assertEquals("PERSONAL", setOnInsert.get("customerType"));
+    assertEquals(Instant.EPOCH, setOnInsert.get("updatedAt"));
+  }
+
+  @Test
+  void updateEventOnlyReplacesOlderValuesAndIgnoresStaleOnes() {
+    when(mongoTemplate.upsert(any(Query.class), any(UpdateDefinition.class), eq(CustomerTypeProjection.class)))
+      .thenReturn(Mono.error(new DuplicateKeyException("stale")));
+
+    StepVerifier.create(service.applyEvent(event("CUSTOMER_UPDATED", "ENTERPRISE")))
+      .verifyComplete();
+
+    assertEquals(new Document("$lt", OCCURRED_AT), olderThanEventFilter(capturedQuery()));
+    Document set = (Document) capturedUpdate().get("$set");
+    assertEquals("ENTERPRISE", set.get("customerType"));
+    assertEquals(false, set.get("deleted"));
+    assertEquals(OCCURRED_AT, set.get("updatedAt"));
+  }
+
+  @Test
+  void deleteEventKeepsTombstoneInsteadOfRemoving() {
+    StepVerifier.create(service.applyEvent(event(CustomerEvent.CUSTOMER_DELETED, null)))
+      .verifyComplete();
+
+    verify(mongoTemplate, never()).remove(any(Query.class), eq(CustomerTypeProjection.class));
+    // un update con el mismo instante que el borrado no lo revive
+    assertEquals(new Document("$lte", OCCURRED_AT), olderThanEventFilter(capturedQuery()));
+    Document set = (Document) capturedUpdate().get("$set");
+    assertEquals(true, set.get("deleted"));
+    assertEquals(OCCURRED_AT, set.get("updatedAt"));
+    assertEquals(OCCURRED_AT.plus(Duration.ofDays(30)), set.get("expireAt"));
+  }
+
+  @Test
+  void deletedCustomerIsNotFoundWithoutCallingCustomerService() {
+    when(projectionRepository.findById(CUSTOMER_ID)).thenReturn(Mono.just(
+      new CustomerTypeProjection(CUSTOMER_ID, null, OCCURRED_AT, true, OCCURRED_AT.plus(Duration.ofDays(30)))));
+
+    StepVerifier.create(service.getCustomerType(CUSTOMER_ID))
+      .expectError(CustomerNotFoundException.class)
+      .verify();
+
+    verify(externalServiceWrapper, never()).getCustomerTypeWithCircuitBreaker(anyString());
+  }
+
+  private Document capturedQuery() {
+    ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+    verify(mongoTemplate).upsert(query.capture(), any(UpdateDefinition.class), eq(CustomerTypeProjection.class));
+    return query.getValue().getQueryObject();
+  }
+
+  private Document capturedUpdate() {
+    ArgumentCaptor<UpdateDefinition> update = ArgumentCaptor.forClass(UpdateDefinition.class);
+    verify(mongoTemplate).upsert(any(Query.class), update.capture(), eq(CustomerTypeProjection.class));
+    return update.getValue().getUpdateObject();
+  }
+
+  private static Document olderThanEventFilter(Document query) {
+    assertEquals(CUSTOMER_ID, query.get("_id"));
+    return (Document) query.get("updatedAt");
+  }
+
+  private static CustomerEvent event(String type, String customerType) {
+    return new CustomerEvent(type, CUSTOMER_ID, customerType, OCCURRED_AT);
+  }
+}
@@ -0,0 +1,138 @@
+package com.bootcamp.ntt.credit_service.service.Impl;
+
+import com.bootcamp.ntt.credit_service.client.CardServiceClient;
+import com.bootcamp.ntt.credit_service.client.CustomerServiceClient;
+import com.bootcamp.ntt.credit_service.client.dto.customer.CustomerTypeResponse;
+import com.bootcamp.ntt.credit_service.exception.CardServiceUnavailableException;
+import com.bootcamp.ntt.credit_service.exception.CustomerServiceUnavailableException;
+import com.bootcamp.ntt.credit_service.utils.HedgingPolicy;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.timelimiter.TimeLimiter;
+import io.github.resilience4j.timelimiter.TimeLimiterConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import reactor.core.publisher.Mono;
+import reactor.netty.internal.shaded.reactor.pool.PoolAcquireTimeoutException;
+import reactor.test.StepVerifier;
+
+import java.net.URI;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ExternalServiceWrapperImplTest {
+
+  private CustomerServiceClient customerServiceClient;
+  private CardServiceClient cardServiceClient;
+  private SimpleMeterRegistry meterRegistry;
+  private ExternalServiceWrapperImpl wrapper;
+
+  @BeforeEach
+  void setUp() {
+    customerServiceClient = mock(CustomerServiceClient.class);
+    cardServiceClient = mock(CardServiceClient.class);
+    meterRegistry = new SimpleMeterRegistry();
+    wrapper = wrapper(HedgingPolicy.disabled());
+  }
+
+  private ExternalServiceWrapperImpl wrapper(HedgingPolicy customerServiceHedgingPolicy) {
+    TimeLimiter timeLimiter = TimeLimiter.of(TimeLimiterConfig.custom().timeoutDuration(Duration.ofMillis(100)).build());
+    return new ExternalServiceWrapperImpl(customerServiceClient, cardServiceClient,
+      CircuitBreaker.ofDefaults("customer-service"), CircuitBreaker.ofDefaults("card-service"),
+      timeLimiter, timeLimiter,
+      Bulkhead.ofDefaults("customer-service"), Bulkhead.of("card-service", BulkheadConfig.custom().maxConcurrentCalls(1).build()),
+      customerServiceHedgingPolicy, HedgingPolicy.disabled(),
+      meterRegistry);
+  }
+
+  @Test
+  void timesSuccessfulCallsByService() {
+    CustomerTypeResponse response = new CustomerTypeResponse();
+    response.setCustomerType("PERSONAL");
+    when(customerServiceClient.getCustomerType(anyString())).thenReturn(Mono.just(response));
+
+    StepVerifier.create(wrapper.getCustomerTypeWithCircuitBreaker("customer-1"))
+      .expectNext(response)
+      .verifyComplete();
+
+    assertEquals(1, meterRegistry.get("credit.downstream.calls")
+      .tags("service", "customer-service", "outcome", "success").timer().count());
+  }
+
+  @Test
+  void countsTimeoutsAnsweredByFallback() {
+    when(cardServiceClient.getCustomerProductEligibility(anyString(), any())).thenReturn(Mono.never());
+    when(customerServiceClient.getCustomerType(anyString())).thenReturn(Mono.never());
+
+    StepVerifier.create(wrapper.getCustomerEligibilityWithCircuitBreaker("customer-1", null))
+      .expectNextMatches(eligibility -> !eligibility.isEligible())
+      .verifyComplete();
+    StepVerifier.create(wrapper.getCustomerTypeWithCircuitBreaker("customer-1"))
+      .verifyError(CustomerServiceUnavailableException.class);
+
+    assertEquals(1, meterRegistry.get("credit.downstream.calls")
+      .tags("service", "card-service", "outcome", "timeout").timer().count());
+    assertEquals(1, meterRegistry.get("credit.downstream.fallbacks")
+      .tags("service", "card-service", "fallback", "not-eligible", "cause", "timeout").counter().count());
+    assertEquals(1, meterRegistry.get("credit.downstream.fallbacks")
+      .tags("service", "customer-service", "fallback", "reject", "cause", "timeout").counter().count());
+  }
+
+  @Test
+  void hedgesSlowCallsWithinTheBudget() {
+    CustomerTypeResponse response = new CustomerTypeResponse();
+    response.setCustomerType("PERSONAL");
+    // presupuesto de un solo hedge, retraso fijo de 10ms
+    wrapper = wrapper(new HedgingPolicy(true, 0.95, 16, 0, Duration.ofMillis(10), Duration.ofMillis(10), 0, 1));
+
+    when(customerServiceClient.getCustomerType(anyString())).thenReturn(Mono.never(), Mono.just(response));
+    StepVerifier.create(wrapper.getCustomerTypeWithCircuitBreaker("customer-1"))
+      .expectNext(response)
+      .verifyComplete();
+
+    when(customerServiceClient.getCustomerType(anyString())).thenReturn(Mono.never());
+    StepVerifier.create(wrapper.getCustomerTypeWithCircuitBreaker("customer-1"))
+      .verifyError(CustomerServiceUnavailableException.class);
+
+    assertEquals(1, meterRegistry.get("credit.downstream.hedges")
+      .tags("service", "customer-service", "outcome", "won").counter().count());
+    assertEquals(1, meterRegistry.get("credit.downstream.hedges")
+      .tags("service", "customer-service", "outcome", "budget-exhausted").counter().count());
+  }
+
+  @Test
+  void fullBulkheadIsReportedAsUnavailableInsteadOfNotEligible() {
+    when(cardServiceClient.getCustomerProductEligibility(anyString(), any())).thenReturn(Mono.never());
+
+    // la primera llamada ocupa el único permiso hasta su timeout; la segunda se rechaza de inmediato
+    wrapper.getCustomerEligibilityWithCircuitBreaker("customer-1", null).subscribe();
+    StepVerifier.create(wrapper.getCustomerEligibilityWithCircuitBreaker("customer-2", null))
+      .verifyError(CardServiceUnavailableException.class);
+
+    assertEquals(1, meterRegistry.get("credit.downstream.fallbacks")
+      .tags("service", "card-service", "fallback", "unavailable", "cause", "bulkhead-full").counter().count());
+  }
+
+  @Test
+  void exhaustedConnectionPoolIsReportedAsUnavailableInsteadOfNotEligible() {
+    when(cardServiceClient.getCustomerProductEligibility(anyString(), any())).thenReturn(Mono.error(
+      new WebClientRequestException(new PoolAcquireTimeoutException(Duration.ofSeconds(2)),
+        HttpMethod.GET, URI.create("http://card-service"), new HttpHeaders())));
+
+    StepVerifier.create(wrapper.getCustomerEligibilityWithCircuitBreaker("customer-1", null))
+      .verifyError(CardServiceUnavailableException.class);
+
+    assertEquals(1, meterRegistry.get("credit.downstream.fallbacks")
+      .tags("service", "card-service", "fallback", "unavailable", "cause", "pool-exhausted").counter().count());
+  }
+}
@@ -0,0 +1,87 @@
+package com.bootcamp.ntt.credit_service.service.Impl;
+
+import com.bootcamp.ntt.credit_service.exception.BusinessRuleException;
+import com.bootcamp.ntt.credit_service.model.PaymentProcessResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ReactiveValueOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class IdempotencyServiceImplTest {
+
+  private static final String KEY = "idempotency:payment:CR-00000000018:key-1";
+
+  private ReactiveValueOperations<String, Object> valueOperations;
+  private IdempotencyServiceImpl idempotencyService;
+  private PaymentProcessResponse stored;
+
+  @BeforeEach
+  @SuppressWarnings("unchecked")
+  void setUp() {
+    ReactiveRedisTemplate<String, Object> redisTemplate = mock(ReactiveRedisTemplate.class);
+    valueOperations = mock(ReactiveValueOperations.class);
+    when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+
+    idempotencyService = new IdempotencyServiceImpl(redisTemplate);
+    ReflectionTestUtils.setField(idempotencyService, "lockTtl", Duration.ofSeconds(30));
+    ReflectionTestUtils.setField(idempotencyService, "waitTimeout", Duration.ofSeconds(5));
+
+    // la primera petición ya guardó su respuesta y su huella
+    stored = new PaymentProcessResponse();
+    stored.setSuccess(true);
+    stored.setRequestedAmount(1000.0);
+    when(valueOperations.setIfAbsent(eq(KEY), any(), any(Duration.class))).thenReturn(Mono.just(false));
+    when(valueOperations.get(KEY)).thenReturn(Mono.just(stored));
+    when(valueOperations.get(KEY + ":fingerprint")).thenReturn(Mono.just("amount=1000.0"));
+  }
+
+  @Test
+  void retryWithTheSameRequestReplaysTheStoredResponse() {
+    StepVerifier.create(execute("amount=1000.0", new AtomicBoolean()))
+      .assertNext(response -> assertEquals(1000.0, response.getRequestedAmount()))
+      .verifyComplete();
+  }
+
+  @Test
+  void retryWithADifferentAmountIsRejectedInsteadOfReplayed() {
+    AtomicBoolean executed = new AtomicBoolean();
+
+    StepVerifier.create(execute("amount=2500.0", executed))
+      .expectErrorSatisfies(error -> assertEquals("IDEMPOTENCY_KEY_REUSED", ((BusinessRuleException) error).getCode()))
+      .verify(Duration.ofSeconds(5));
+
+    assertFalse(executed.get());
+  }
+
+  @Test
+  void responseStoredWithoutFingerprintIsReplayed() {
+    when(valueOperations.get(anyString())).thenReturn(Mono.empty());
+    when(valueOperations.get(KEY)).thenReturn(Mono.just(stored));
+
+    StepVerifier.create(execute("amount=2500.0", new AtomicBoolean()))
+      .expectNext(stored)
+      .verifyComplete();
+  }
+
+  private Mono<PaymentProcessResponse> execute(String fingerprint, AtomicBoolean executed) {
+    return idempotencyService.execute("payment:CR-00000000018", "key-1", fingerprint, PaymentProcessResponse.class,
+      () -> Mono.fromCallable(() -> {
+        executed.set(true);
+        return new PaymentProcessResponse();
+      }));
+  }
+}
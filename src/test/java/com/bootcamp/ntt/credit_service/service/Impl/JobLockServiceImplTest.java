@@ -0,0 +1,79 @@
+package com.bootcamp.ntt.credit_service.service.Impl;
+
+import com.bootcamp.ntt.credit_service.entity.JobLease;
+import com.mongodb.client.result.UpdateResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class JobLockServiceImplTest {
+
+  private static final Duration LEASE = Duration.ofSeconds(30);
+
+  private ReactiveMongoTemplate mongoTemplate;
+  private JobLockServiceImpl jobLockService;
+
+  @BeforeEach
+  void setUp() {
+    mongoTemplate = mock(ReactiveMongoTemplate.class);
+    jobLockService = new JobLockServiceImpl(mongoTemplate);
+    when(mongoTemplate.upsert(any(Query.class), any(UpdateDefinition.class), eq(JobLease.class)))
+      .thenReturn(Mono.just(UpdateResult.acknowledged(1, 1L, null)));
+    when(mongoTemplate.updateFirst(any(Query.class), any(UpdateDefinition.class), eq(JobLease.class)))
+      .thenReturn(Mono.just(UpdateResult.acknowledged(1, 1L, null)));
+  }
+
+  @Test
+  void skipsTheWorkWhenAnotherReplicaHoldsTheLease() {
+    when(mongoTemplate.upsert(any(Query.class), any(UpdateDefinition.class), eq(JobLease.class)))
+      .thenReturn(Mono.error(new DuplicateKeyException("held")));
+    AtomicBoolean subscribed = new AtomicBoolean(false);
+
+    StepVerifier.create(jobLockService.runExclusively("overdue-engine", LEASE,
+        Mono.fromCallable(() -> subscribed.getAndSet(true))))
+      .verifyComplete();
+
+    assertFalse(subscribed.get());
+  }
+
+  @Test
+  void runsTheWorkAndReleasesTheLease() {
+    StepVerifier.create(jobLockService.runExclusively("overdue-engine", LEASE, Mono.just(3L)))
+      .expectNext(3L)
+      .verifyComplete();
+
+    verify(mongoTemplate, timeout(1000)).updateFirst(any(Query.class), any(UpdateDefinition.class), eq(JobLease.class));
+  }
+
+  @Test
+  void cancelsTheWorkWhenTheLeaseIsLost() {
+    when(mongoTemplate.updateFirst(any(Query.class), any(UpdateDefinition.class), eq(JobLease.class)))
+      .thenReturn(Mono.just(UpdateResult.acknowledged(0, 0L, null)));
+    AtomicBoolean cancelled = new AtomicBoolean(false);
+
+    StepVerifier.withVirtualTime(() -> jobLockService.runExclusively("outbox-relay", LEASE,
+          Mono.<Long>never().doOnCancel(() -> cancelled.set(true))))
+      .expectSubscription()
+      .thenAwait(LEASE)
+      .verifyComplete();
+
+    assertTrue(cancelled.get());
+  }
+}
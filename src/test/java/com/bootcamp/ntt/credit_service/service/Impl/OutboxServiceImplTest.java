@@ -0,0 +1,204 @@
+package com.bootcamp.ntt.credit_service.service.Impl;
+
+import com.bootcamp.ntt.credit_service.entity.Credit;
+import com.bootcamp.ntt.credit_service.entity.CreditEventType;
+import com.bootcamp.ntt.credit_service.entity.CreditStatus;
+import com.bootcamp.ntt.credit_service.entity.CreditType;
+import com.bootcamp.ntt.credit_service.entity.Money;
+import com.bootcamp.ntt.credit_service.entity.OutboxEvent;
+import com.bootcamp.ntt.credit_service.mapper.CreditMapper;
+import com.bootcamp.ntt.credit_service.repository.OutboxEventRepository;
+import com.bootcamp.ntt.credit_service.service.JobLockService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.kafka.test.utils.KafkaTestUtils;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.concurrent.SettableListenableFuture;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@EmbeddedKafka(partitions = 1, topics = {"credit.lifecycle", "credit.payments"})
+class OutboxServiceImplTest {
+
+  private OutboxEventRepository outboxRepository;
+  private OutboxServiceImpl outboxService;
+  private DefaultKafkaProducerFactory<String, String> producerFactory;
+  private Consumer<String, String> consumer;
+
+  @BeforeEach
+  void setUp(EmbeddedKafkaBroker broker) {
+    producerFactory = new DefaultKafkaProducerFactory<>(
+      KafkaTestUtils.producerProps(broker), new StringSerializer(), new StringSerializer());
+    outboxRepository = mock(OutboxEventRepository.class);
+    outboxService = new OutboxServiceImpl(outboxRepository, new KafkaTemplate<>(producerFactory),
+      mock(CreditMapper.class), new ObjectMapper(), mock(JobLockService.class));
+    ReflectionTestUtils.setField(outboxService, "batchSize", 200);
+    ReflectionTestUtils.setField(outboxService, "topicPrefix", "credit.");
+
+    Map<String, Object> consumerProps = KafkaTestUtils.consumerProps("outbox-test", "false", broker);
+    consumer = new DefaultKafkaConsumerFactory<>(consumerProps, new StringDeserializer(), new StringDeserializer())
+      .createConsumer();
+    broker.consumeFromAllEmbeddedTopics(consumer);
+  }
+
+  @AfterEach
+  void tearDown() {
+    consumer.close();
+    producerFactory.destroy();
+  }
+
+  @Test
+  void relayPublishesPendingEventsKeyedByCreditNumberAndDeletesThem() {
+    List<OutboxEvent> pending = List.of(
+      event("e1", CreditEventType.CREDIT_CREATED, "CR-00000000018"),
+      event("e2", CreditEventType.PAYMENT_PROCESSED, "CR-00000000018"),
+      event("e3", CreditEventType.PAYMENT_PROCESSED, "CR-00000000018"));
+    when(outboxRepository.findAllByOrderByIdAsc(any())).thenReturn(Flux.fromIterable(pending));
+    when(outboxRepository.deleteAllById(any())).thenReturn(Mono.empty());
+
+    StepVerifier.create(outboxService.relayPending())
+      .expectNext(3L)
+      .verifyComplete();
+
+    List<ConsumerRecord<String, String>> records = poll(3);
+    assertEquals(List.of("CR-00000000018", "CR-00000000018", "CR-00000000018"),
+      records.stream().map(ConsumerRecord::key).collect(Collectors.toList()));
+    assertEquals(List.of("payload-e1"), valuesOf(records, "credit.lifecycle"));
+    assertEquals(List.of("payload-e2", "payload-e3"), valuesOf(records, "credit.payments"));
+    verify(outboxRepository).deleteAllById(List.of("e1", "e2", "e3"));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void relayStopsAtTheFirstFailedSendWithoutPublishingLaterEvents() {
+    KafkaTemplate<String, String> kafkaTemplate = mock(KafkaTemplate.class);
+    outboxService = new OutboxServiceImpl(outboxRepository, kafkaTemplate, mock(CreditMapper.class), new ObjectMapper(),
+      mock(JobLockService.class));
+    ReflectionTestUtils.setField(outboxService, "batchSize", 200);
+    ReflectionTestUtils.setField(outboxService, "topicPrefix", "credit.");
+
+    SettableListenableFuture<SendResult<String, String>> acked = new SettableListenableFuture<>();
+    acked.set(null);
+    SettableListenableFuture<SendResult<String, String>> failed = new SettableListenableFuture<>();
+    failed.setException(new IllegalStateException("broker down"));
+    when(kafkaTemplate.send(anyString(), anyString(), eq("payload-e1"))).thenReturn(acked);
+    when(kafkaTemplate.send(anyString(), anyString(), eq("payload-e2"))).thenReturn(failed);
+
+    when(outboxRepository.findAllByOrderByIdAsc(any())).thenReturn(Flux.just(
+      event("e1", CreditEventType.CREDIT_CREATED, "CR-00000000018"),
+      event("e2", CreditEventType.PAYMENT_PROCESSED, "CR-00000000018"),
+      event("e3", CreditEventType.PAYMENT_PROCESSED, "CR-00000000018")));
+    when(outboxRepository.deleteAllById(any())).thenReturn(Mono.empty());
+
+    StepVerifier.create(outboxService.relayPending())
+      .expectNext(1L)
+      .verifyComplete();
+
+    verify(kafkaTemplate, never()).send(anyString(), anyString(), eq("payload-e3"));
+    verify(outboxRepository).deleteAllById(List.of("e1"));
+  }
+
+  @Test
+  void relayDoesNothingWhenOutboxIsEmpty() {
+    when(outboxRepository.findAllByOrderByIdAsc(any())).thenReturn(Flux.empty());
+
+    StepVerifier.create(outboxService.relayPending())
+      .expectNext(0L)
+      .verifyComplete();
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void recordedEventsCarryTheCreditVersionAndDeletesOrderAfterTheLastSave() throws Exception {
+    outboxService = new OutboxServiceImpl(outboxRepository, mock(KafkaTemplate.class), new CreditMapper(),
+      new ObjectMapper().findAndRegisterModules(), mock(JobLockService.class));
+    ArgumentCaptor<Iterable<OutboxEvent>> inserted = ArgumentCaptor.forClass(Iterable.class);
+    when(outboxRepository.insert(inserted.capture())).thenReturn(Flux.empty());
+
+    StepVerifier.create(outboxService.record(CreditEventType.PAYMENT_PROCESSED, credit(4L))
+        .then(outboxService.record(CreditEventType.CREDIT_DELETED, credit(4L))))
+      .verifyComplete();
+
+    List<OutboxEvent> events = new ArrayList<>();
+    inserted.getAllValues().forEach(batch -> batch.forEach(events::add));
+    assertEquals(List.of(4L, 5L), events.stream().map(OutboxEvent::getCreditVersion).collect(Collectors.toList()));
+    assertEquals(4L, new ObjectMapper().readTree(events.get(0).getPayload()).path("creditVersion").asLong());
+  }
+
+  private List<ConsumerRecord<String, String>> poll(int expected) {
+    List<ConsumerRecord<String, String>> records = new ArrayList<>();
+    long deadline = System.currentTimeMillis() + 10_000;
+    while (records.size() < expected && System.currentTimeMillis() < deadline) {
+      consumer.poll(Duration.ofMillis(200)).forEach(records::add);
+    }
+    return records;
+  }
+
+  private List<String> valuesOf(List<ConsumerRecord<String, String>> records, String topic) {
+    return records.stream()
+      .filter(record -> record.topic().equals(topic))
+      .map(ConsumerRecord::value)
+      .collect(Collectors.toList());
+  }
+
+  private static Credit credit(long version) {
+    return Credit.builder()
+      .id("credit-1")
+      .creditNumber("CR-00000000018")
+      .customerId("customer-1")
+      .type(CreditType.PERSONAL)
+      .originalAmount(Money.ofMinor(12_000_00))
+      .currentBalance(Money.ofMinor(11_000_00))
+      .monthlyPayment(Money.ofMinor(1_000_00))
+      .totalInstallments(12)
+      .paidInstallments(1)
+      .remainingInstallments(11)
+      .isOverdue(false)
+      .overdueDays(0)
+      .status(CreditStatus.ACTIVE)
+      .isActive(true)
+      .version(version)
+      .build();
+  }
+
+  private OutboxEvent event(String id, CreditEventType eventType, String creditNumber) {
+    return OutboxEvent.builder()
+      .id(id)
+      .eventType(eventType)
+      .creditId("credit-" + creditNumber)
+      .creditNumber(creditNumber)
+      .payload("payload-" + id)
+      .createdAt(Instant.now())
+      .build();
+  }
+}
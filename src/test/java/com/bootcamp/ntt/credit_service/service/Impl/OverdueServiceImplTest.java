@@ -0,0 +1,93 @@
+package com.bootcamp.ntt.credit_service.service.Impl;
+
+import com.bootcamp.ntt.credit_service.entity.Credit;
+import com.bootcamp.ntt.credit_service.entity.JobCheckpoint;
+import com.bootcamp.ntt.credit_service.repository.CreditRepository;
+import com.bootcamp.ntt.credit_service.repository.JobCheckpointRepository;
+import com.bootcamp.ntt.credit_service.service.CacheService;
+import com.bootcamp.ntt.credit_service.service.JobLockService;
+import com.bootcamp.ntt.credit_service.service.OutboxService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OverdueServiceImplTest {
+
+  private static final String CHECKPOINT_ID = "overdue-engine";
+
+  private CreditRepository creditRepository;
+  private JobCheckpointRepository checkpointRepository;
+  private OverdueServiceImpl overdueService;
+
+  @BeforeEach
+  @SuppressWarnings("unchecked")
+  void setUp() {
+    creditRepository = mock(CreditRepository.class);
+    checkpointRepository = mock(JobCheckpointRepository.class);
+    TransactionalOperator transactionalOperator = mock(TransactionalOperator.class);
+    when(transactionalOperator.transactional(any(Mono.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    when(checkpointRepository.save(any(JobCheckpoint.class)))
+      .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+
+    overdueService = new OverdueServiceImpl(creditRepository, checkpointRepository,
+      mock(CacheService.class, invocation -> Mono.empty()), mock(OutboxService.class, invocation -> Mono.empty()),
+      transactionalOperator, mock(JobLockService.class));
+    ReflectionTestUtils.setField(overdueService, "batchSize", 500);
+  }
+
+  @Test
+  void afterACompletedRunScansEveryPastDueDateAgain() {
+    LocalDate today = LocalDate.now();
+    // reactivado con un vencimiento anterior a la corrida previa
+    Credit reactivated = Credit.builder().id("credit-1").customerId("customer-1")
+      .nextPaymentDueDate(today.minusMonths(3)).version(4L).build();
+    when(checkpointRepository.findById(CHECKPOINT_ID))
+      .thenReturn(Mono.just(new JobCheckpoint(CHECKPOINT_ID, null, Instant.now())));
+    when(creditRepository.findNewlyOverdue(isNull(), eq(today))).thenReturn(Flux.just(reactivated));
+    when(creditRepository.findOverdueCandidates(anyCollection(), eq(today))).thenReturn(Flux.just(reactivated));
+    when(creditRepository.markOverdue(anyCollection(), eq(today))).thenReturn(Mono.just(1L));
+
+    StepVerifier.create(overdueService.markOverdueCredits())
+      .expectNext(1L)
+      .verifyComplete();
+
+    ArgumentCaptor<JobCheckpoint> checkpoints = ArgumentCaptor.forClass(JobCheckpoint.class);
+    verify(checkpointRepository, atLeastOnce()).save(checkpoints.capture());
+    List<JobCheckpoint> saved = checkpoints.getAllValues();
+    assertNull(saved.get(saved.size() - 1).getLastProcessedDate());
+  }
+
+  @Test
+  void anInterruptedRunResumesFromItsCheckpoint() {
+    LocalDate today = LocalDate.now();
+    LocalDate reached = today.minusDays(10);
+    when(checkpointRepository.findById(CHECKPOINT_ID))
+      .thenReturn(Mono.just(new JobCheckpoint(CHECKPOINT_ID, reached, Instant.now())));
+    when(creditRepository.findNewlyOverdue(reached, today)).thenReturn(Flux.empty());
+
+    StepVerifier.create(overdueService.markOverdueCredits())
+      .expectNext(0L)
+      .verifyComplete();
+
+    verify(creditRepository).findNewlyOverdue(reached, today);
+  }
+}
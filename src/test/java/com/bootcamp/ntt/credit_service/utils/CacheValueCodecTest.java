@@ -0,0 +1,87 @@
+package com.bootcamp.ntt.credit_service.utils;
+
+import com.bootcamp.ntt.credit_service.config.RedisConfig;
+import com.bootcamp.ntt.credit_service.dto.CreditBalanceSnapshot;
+import com.bootcamp.ntt.credit_service.model.CreditBalanceResponse;
+import com.bootcamp.ntt.credit_service.model.CreditResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CacheValueCodecTest {
+
+  private final Jackson2JsonRedisSerializer<Object> legacy = RedisConfig.legacyJsonSerializer();
+  private final CacheValueCodec codec = new CacheValueCodec(legacy, true);
+
+  @Test
+  void roundTripsRegisteredTypesWithSmallerPayload() {
+    CreditResponse credit = creditResponse();
+
+    byte[] encoded = codec.serialize(credit);
+
+    assertEquals(CacheValueCodec.MAGIC, encoded[0]);
+    assertEquals(CacheValueCodec.VERSION, encoded[1]);
+    assertEquals(credit, codec.deserialize(encoded));
+    assertTrue(encoded.length < legacy.serialize(credit).length);
+  }
+
+  @Test
+  void roundTripsNestedSnapshotAndStrings() {
+    CreditBalanceResponse balance = new CreditBalanceResponse();
+    balance.setCreditId("64f3cbb5f8a1e53d2f7c34e1");
+    balance.setCreditNumber("CR-00000000018");
+    balance.setCurrentBalance(13750.0);
+    balance.setNextPaymentDueDate(LocalDate.of(2025, 11, 15));
+    CreditBalanceSnapshot snapshot = new CreditBalanceSnapshot("68a0cdde7d68c910da0bc239", balance);
+
+    assertEquals(snapshot, codec.deserialize(codec.serialize(snapshot)));
+    assertEquals("IN_PROGRESS", codec.deserialize(codec.serialize("IN_PROGRESS")));
+  }
+
+  @Test
+  void readsValuesWrittenByTheLegacySerializer() {
+    CreditResponse credit = creditResponse();
+
+    assertEquals(credit, codec.deserialize(legacy.serialize(credit)));
+  }
+
+  @Test
+  void writesLegacyJsonWhenBinaryIsDisabled() {
+    CacheValueCodec rollback = new CacheValueCodec(legacy, false);
+    CreditResponse credit = creditResponse();
+
+    byte[] encoded = rollback.serialize(credit);
+
+    assertEquals('[', encoded[0]);
+    assertEquals(credit, codec.deserialize(encoded));
+  }
+
+  private CreditResponse creditResponse() {
+    CreditResponse credit = new CreditResponse();
+    credit.setId("64f3cbb5f8a1e53d2f7c34e1");
+    credit.setCreditNumber("CR-00000000018");
+    credit.setCustomerId("68a0cdde7d68c910da0bc239");
+    credit.setType(CreditResponse.TypeEnum.PERSONAL);
+    credit.setOriginalAmount(15000.0);
+    credit.setCurrentBalance(13750.0);
+    credit.setMonthlyPayment(1250.0);
+    credit.setTotalInstallments(12);
+    credit.setPaidInstallments(1);
+    credit.setRemainingInstallments(11);
+    credit.setNextPaymentDueDate(LocalDate.of(2025, 11, 15));
+    credit.setFinalDueDate(LocalDate.of(2026, 10, 15));
+    credit.setIsOverdue(false);
+    credit.setOverdueDays(0);
+    credit.setStatus(CreditResponse.StatusEnum.ACTIVE);
+    credit.setIsActive(true);
+    credit.setCreatedAt(OffsetDateTime.of(2025, 8, 18, 10, 15, 30, 0, ZoneOffset.UTC));
+    credit.setUpdatedAt(OffsetDateTime.of(2025, 8, 18, 10, 15, 30, 0, ZoneOffset.UTC));
+    return credit;
+  }
+}
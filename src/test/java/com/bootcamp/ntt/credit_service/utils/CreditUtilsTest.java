@@ -0,0 +1,37 @@
+package com.bootcamp.ntt.credit_service.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CreditUtilsTest {
+
+  private final CreditUtils creditUtils = new CreditUtils();
+
+  @Test
+  void formattedNumbersCarryAValidCheckDigit() {
+    String creditNumber = creditUtils.formatCreditNumber(1);
+
+    assertEquals("CR-00000000018", creditNumber);
+    assertTrue(creditUtils.isValidCreditNumber(creditNumber));
+    assertTrue(creditUtils.isValidCreditNumber(creditUtils.formatCreditNumber(CreditUtils.MAX_SEQUENCE)));
+  }
+
+  @Test
+  void rejectsTyposAndMalformedNumbers() {
+    assertFalse(creditUtils.isValidCreditNumber("CR-00000000017"));
+    assertFalse(creditUtils.isValidCreditNumber("CR-00000000081"));
+    assertFalse(creditUtils.isValidCreditNumber("CR-0000000001"));
+    assertFalse(creditUtils.isValidCreditNumber("CR-0000000001x"));
+    assertFalse(creditUtils.isValidCreditNumber("00000000018"));
+    assertFalse(creditUtils.isValidCreditNumber(null));
+  }
+
+  @Test
+  void acceptsLegacyFourDigitNumbers() {
+    assertTrue(creditUtils.isValidCreditNumber("CR-0427"));
+    assertFalse(creditUtils.isValidCreditNumber("CR-427"));
+  }
+}